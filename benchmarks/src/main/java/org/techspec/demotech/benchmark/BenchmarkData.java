@@ -0,0 +1,47 @@
+package org.techspec.demotech.benchmark;
+
+import org.techspec.demotech.entity.Subscription;
+import org.techspec.demotech.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 15, 10, 30);
+    private static final String[] SERVICES = {"Netflix", "Spotify", "YouTube Premium", "Яндекс Плюс", "Кинопоиск"};
+
+    private BenchmarkData() {
+    }
+
+    static List<User> users(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(User.builder()
+                    .id((long) i + 1)
+                    .name("Пользователь " + i)
+                    .email("user" + i + "@example.com")
+                    .createdAt(CREATED_AT)
+                    .updatedAt(CREATED_AT.plusMinutes(i))
+                    .version(0L)
+                    .subscriptionsVersion(0L)
+                    .build());
+        }
+        return users;
+    }
+
+    static List<Subscription> subscriptions(int size) {
+        List<Subscription> subscriptions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            subscriptions.add(Subscription.builder()
+                    .id((long) i + 1)
+                    .serviceName(SERVICES[i % SERVICES.length])
+                    .price(BigDecimal.valueOf(19_900 + i, 2))
+                    .createdAt(CREATED_AT)
+                    .build());
+        }
+        return subscriptions;
+    }
+}
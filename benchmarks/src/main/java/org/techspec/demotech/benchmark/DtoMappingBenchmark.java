@@ -0,0 +1,58 @@
+package org.techspec.demotech.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.entity.Subscription;
+import org.techspec.demotech.entity.User;
+import org.techspec.demotech.mapper.SubscriptionMapper;
+import org.techspec.demotech.mapper.UserMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private List<User> users;
+    private List<Subscription> subscriptions;
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkData.users(size);
+        subscriptions = BenchmarkData.subscriptions(size);
+    }
+
+    @Benchmark
+    public List<UserDto> mapUsers() {
+        return users.stream()
+                .map(UserMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<SubscriptionDto> mapSubscriptions() {
+        return subscriptions.stream()
+                .map(SubscriptionMapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
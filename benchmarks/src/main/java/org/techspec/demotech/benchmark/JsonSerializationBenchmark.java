@@ -0,0 +1,63 @@
+package org.techspec.demotech.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.mapper.SubscriptionMapper;
+import org.techspec.demotech.mapper.UserMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<UserDto> users;
+    private List<SubscriptionDto> subscriptions;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        users = BenchmarkData.users(size).stream()
+                .map(UserMapper::toDto)
+                .collect(Collectors.toList());
+        subscriptions = BenchmarkData.subscriptions(size).stream()
+                .map(SubscriptionMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializeSubscriptions() throws JsonProcessingException {
+        return writer.writeValueAsBytes(subscriptions);
+    }
+}
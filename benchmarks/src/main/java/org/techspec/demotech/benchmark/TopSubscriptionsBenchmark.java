@@ -0,0 +1,74 @@
+package org.techspec.demotech.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.service.SubscriptionLeaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopSubscriptionsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int services;
+
+    @Param({"3", "100"})
+    private int limit;
+
+    private SubscriptionLeaderboard leaderboard;
+    private List<Object[]> groupedRows;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        leaderboard = new SubscriptionLeaderboard(null);
+        groupedRows = new ArrayList<>(services);
+        for (int i = 0; i < services; i++) {
+            String serviceName = "service-" + i;
+            long count = 1 + random.nextInt(1_000_000);
+            leaderboard.recordCreated(serviceName, count);
+            groupedRows.add(new Object[]{serviceName, count});
+        }
+        groupedRows.sort(Comparator.comparingLong((Object[] row) -> (Long) row[1]).reversed());
+    }
+
+    @Benchmark
+    public List<TopSubscriptionDto> leaderboardTop() {
+        return leaderboard.top(limit);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> groupedRowsToMaps() {
+        return groupedRows.stream()
+                .limit(limit)
+                .map(row -> {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("serviceName", row[0]);
+                    item.put("subscribersCount", row[1]);
+                    return item;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,98 @@
+package org.techspec.demotech.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+final class LatencyReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private LatencyReport() {
+    }
+
+    static void print(PrintStream out, LoadTestOptions options, OpenModelDriver.Result result) {
+        double elapsedSeconds = result.elapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        out.printf(Locale.ROOT, "%nСценарий: %s, целевая интенсивность: %d req/s, отправлено: %d за %.1f с (%.1f req/s), "
+                        + "макс. отставание отправки: %.2f мс%n",
+                options.scenario(), options.rate(), result.sent(), elapsedSeconds, result.sent() / elapsedSeconds,
+                result.maxDispatchLagNanos() / 1_000_000.0);
+        out.println("Задержка считается от запланированного момента отправки (поправка на coordinated omission), мс");
+        out.printf(Locale.ROOT, "%-20s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "операция", "всего", "4xx", "ошибки", "p50", "p90", "p99", "p99.9", "max");
+        for (Map.Entry<Operation, OperationStats> entry : result.stats().entrySet()) {
+            OperationStats stats = entry.getValue();
+            printRow(out, entry.getKey().name(), stats.total(), stats.rejected(), stats.failed(), stats.latencyMicros());
+        }
+        long total = result.stats().values().stream().mapToLong(OperationStats::total).sum();
+        long rejected = result.stats().values().stream().mapToLong(OperationStats::rejected).sum();
+        long failed = result.stats().values().stream().mapToLong(OperationStats::failed).sum();
+        printRow(out, "ВСЕГО", total, rejected, failed, result.totalLatencyMicros());
+    }
+
+    static void write(Path directory, LoadTestOptions options, OpenModelDriver.Result result,
+                      ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(directory);
+        String prefix = options.scenario() + "-" + options.rate() + "rps";
+
+        ObjectNode summary = objectMapper.createObjectNode()
+                .put("scenario", options.scenario().toString())
+                .put("targetRate", options.rate())
+                .put("sent", result.sent())
+                .put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()))
+                .put("maxDispatchLagMillis", result.maxDispatchLagNanos() / 1_000_000.0);
+        ObjectNode operations = summary.putObject("operations");
+        for (Map.Entry<Operation, OperationStats> entry : result.stats().entrySet()) {
+            OperationStats stats = entry.getValue();
+            ObjectNode node = operations.putObject(entry.getKey().name())
+                    .put("total", stats.total())
+                    .put("succeeded", stats.succeeded())
+                    .put("rejected", stats.rejected())
+                    .put("failed", stats.failed());
+            putPercentiles(node, stats.latencyMicros());
+            writeDistribution(directory.resolve(prefix + "-" + entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm"),
+                    stats.latencyMicros());
+        }
+        putPercentiles(summary.putObject("total"), result.totalLatencyMicros());
+        writeDistribution(directory.resolve(prefix + "-total.hgrm"), result.totalLatencyMicros());
+
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve(prefix + ".json").toFile(), summary);
+    }
+
+    private static void printRow(PrintStream out, String name, long total, long rejected, long failed,
+                                 Histogram latency) {
+        out.printf(Locale.ROOT, "%-20s %9d %9d %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, total, rejected, failed,
+                millis(latency, PERCENTILES[0]), millis(latency, PERCENTILES[1]),
+                millis(latency, PERCENTILES[2]), millis(latency, PERCENTILES[3]),
+                latency.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static void putPercentiles(ObjectNode node, Histogram latency) {
+        ObjectNode percentiles = node.putObject("latencyMillis");
+        for (double percentile : PERCENTILES) {
+            percentiles.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile)), millis(latency, percentile));
+        }
+        percentiles.put("max", latency.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static double millis(Histogram latency, double percentile) {
+        return latency.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private static void writeDistribution(Path file, Histogram latency) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true)) {
+            latency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
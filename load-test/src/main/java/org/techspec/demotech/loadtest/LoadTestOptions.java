@@ -0,0 +1,62 @@
+package org.techspec.demotech.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+record LoadTestOptions(
+        URI baseUri,
+        String jdbcUrl,
+        String dbUsername,
+        String dbPassword,
+        String[] profiles,
+        Scenario scenario,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        Duration requestTimeout,
+        int seedUsers,
+        int seedSubscriptionsPerUser,
+        Path reportDirectory) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --ключ=значение: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String target = values.getOrDefault("target", "embedded");
+        LoadTestOptions options = new LoadTestOptions(
+                "embedded".equals(target) ? null : URI.create(target),
+                values.get("jdbc-url"),
+                values.getOrDefault("db-username", "postgres"),
+                values.getOrDefault("db-password", "postgres"),
+                values.containsKey("profiles") ? values.get("profiles").split(",") : new String[0],
+                Scenario.fromName(values.getOrDefault("scenario", "read-heavy")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Duration.parse(values.getOrDefault("request-timeout", "PT10S")),
+                Integer.parseInt(values.getOrDefault("seed-users", "1000")),
+                Integer.parseInt(values.getOrDefault("seed-subscriptions-per-user", "3")),
+                Path.of(values.getOrDefault("report-dir", "target/load-test")));
+
+        if (options.rate() <= 0) {
+            throw new IllegalArgumentException("Интенсивность --rate должна быть больше 0");
+        }
+        if (options.seedUsers() <= 0) {
+            throw new IllegalArgumentException("Количество --seed-users должно быть больше 0");
+        }
+        return options;
+    }
+
+    boolean embedded() {
+        return baseUri == null;
+    }
+}
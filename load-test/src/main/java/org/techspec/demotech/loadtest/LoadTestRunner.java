@@ -0,0 +1,105 @@
+package org.techspec.demotech.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.techspec.demotech.DemoTechApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public final class LoadTestRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final long WORKLOAD_SEED = 42;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ConfigurableApplicationContext context = null;
+        URI baseUri = options.baseUri();
+        if (options.embedded()) {
+            context = startEmbedded(options);
+            baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        }
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(options.requestTimeout())
+                    .build();
+            String runId = UUID.randomUUID().toString().substring(0, 8);
+
+            log.info("Подготовка данных: {} пользователей, по {} подписки", options.seedUsers(),
+                    options.seedSubscriptionsPerUser());
+            List<Long> userIds = new Seeder(client, baseUri, objectMapper)
+                    .seed(options.seedUsers(), options.seedSubscriptionsPerUser(), runId);
+
+            Workload workload = new Workload(baseUri, userIds, runId, WORKLOAD_SEED);
+            OpenModelDriver driver = new OpenModelDriver(client, options.scenario(), workload,
+                    options.rate(), options.requestTimeout());
+
+            if (!options.warmup().isZero()) {
+                log.info("Прогрев {} на {} req/s", options.warmup(), options.rate());
+                driver.run(options.warmup());
+            }
+            log.info("Замер {} на {} req/s, сценарий {}", options.duration(), options.rate(), options.scenario());
+            OpenModelDriver.Result result = driver.run(options.duration());
+
+            LatencyReport.print(System.out, options, result);
+            LatencyReport.write(options.reportDirectory(), options, result, objectMapper);
+            log.info("Отчеты сохранены в {}", options.reportDirectory().toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbedded(LoadTestOptions options) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("logging.level.org.techspec.demotech", "WARN");
+        properties.put("logging.level.org.springframework.web", "WARN");
+        properties.put("logging.level.org.techspec.demotech.loadtest", "INFO");
+        properties.put("logging.level.org.hibernate.engine.jdbc", "OFF");
+        properties.put("logging.level.org.hibernate.orm.jdbc.batch", "OFF");
+
+        if (options.jdbcUrl() == null) {
+            log.info("Запуск сервиса на H2 в режиме PostgreSQL");
+            properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                    + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+            properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            properties.put("spring.flyway.enabled", "false");
+        } else {
+            log.info("Запуск сервиса на {}", options.jdbcUrl());
+            properties.put("spring.datasource.url", options.jdbcUrl());
+            properties.put("spring.datasource.username", options.dbUsername());
+            properties.put("spring.datasource.password", options.dbPassword());
+        }
+
+        String[] arguments = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(DemoTechApplication.class)
+                .profiles(options.profiles())
+                .run(arguments);
+    }
+}
@@ -0,0 +1,96 @@
+package org.techspec.demotech.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+final class OpenModelDriver {
+
+    private static final long DRAIN_POLL_MILLIS = 10;
+
+    private final HttpClient client;
+    private final Scenario scenario;
+    private final Workload workload;
+    private final int rate;
+    private final Duration requestTimeout;
+
+    OpenModelDriver(HttpClient client, Scenario scenario, Workload workload, int rate, Duration requestTimeout) {
+        this.client = client;
+        this.scenario = scenario;
+        this.workload = workload;
+        this.rate = rate;
+        this.requestTimeout = requestTimeout;
+    }
+
+    Result run(Duration duration) throws InterruptedException {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : scenario.operations()) {
+            stats.put(operation, new OperationStats());
+        }
+
+        AtomicLong inFlight = new AtomicLong();
+        long maxDispatchLagNanos = 0;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * TimeUnit.SECONDS.toNanos(1) / rate;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                maxDispatchLagNanos = Math.max(maxDispatchLagNanos, -wait);
+            }
+
+            Operation operation = scenario.next(workload.random());
+            HttpRequest request = operation.request(workload).timeout(requestTimeout).build();
+            OperationStats operationStats = stats.get(operation);
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        operationStats.record(System.nanoTime() - intendedStart, response, error);
+                        inFlight.decrementAndGet();
+                    });
+            sent++;
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long drainDeadline = System.nanoTime() + requestTimeout.toNanos() * 2;
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > drainDeadline) {
+                throw new IllegalStateException("Не дождались завершения " + inFlight.get()
+                        + " запросов после окончания прогона");
+            }
+            Thread.sleep(DRAIN_POLL_MILLIS);
+        }
+
+        return new Result(stats, sent, elapsedNanos, maxDispatchLagNanos);
+    }
+
+    record Result(Map<Operation, OperationStats> stats, long sent, long elapsedNanos, long maxDispatchLagNanos) {
+
+        Histogram totalLatencyMicros() {
+            Histogram total = null;
+            for (OperationStats operationStats : stats.values()) {
+                if (total == null) {
+                    total = operationStats.latencyMicros().copy();
+                } else {
+                    total.add(operationStats.latencyMicros());
+                }
+            }
+            return total;
+        }
+    }
+}
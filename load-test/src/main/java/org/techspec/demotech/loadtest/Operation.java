@@ -0,0 +1,63 @@
+package org.techspec.demotech.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+enum Operation {
+
+    GET_USER {
+        @Override
+        HttpRequest.Builder request(Workload workload) {
+            return HttpRequest.newBuilder(workload.uri("/users/" + workload.randomUserId())).GET();
+        }
+    },
+    LIST_USERS {
+        @Override
+        HttpRequest.Builder request(Workload workload) {
+            return HttpRequest.newBuilder(workload.uri("/users?limit=50&after=" + workload.randomCursor())).GET();
+        }
+    },
+    GET_SUBSCRIPTIONS {
+        @Override
+        HttpRequest.Builder request(Workload workload) {
+            return HttpRequest.newBuilder(workload.uri("/users/" + workload.randomUserId() + "/subscriptions")).GET();
+        }
+    },
+    TOP_SUBSCRIPTIONS {
+        @Override
+        HttpRequest.Builder request(Workload workload) {
+            return HttpRequest.newBuilder(workload.uri("/subscriptions/top?limit=10")).GET();
+        }
+    },
+    CREATE_USER {
+        @Override
+        HttpRequest.Builder request(Workload workload) {
+            long sequence = workload.nextSequence();
+            return json(workload.uri("/users"), "{\"name\":\"Нагрузочный " + sequence
+                    + "\",\"email\":\"load-" + workload.runId() + "-" + sequence + "@example.com\"}");
+        }
+    },
+    UPDATE_USER {
+        @Override
+        HttpRequest.Builder request(Workload workload) {
+            return HttpRequest.newBuilder(workload.uri("/users/" + workload.randomUserId()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"Обновлен " + workload.nextSequence() + "\"}"));
+        }
+    },
+    CREATE_SUBSCRIPTION {
+        @Override
+        HttpRequest.Builder request(Workload workload) {
+            return json(workload.uri("/users/" + workload.randomUserId() + "/subscriptions"),
+                    "{\"serviceName\":\"" + workload.randomServiceName() + "\",\"price\":199.00}");
+        }
+    };
+
+    abstract HttpRequest.Builder request(Workload workload);
+
+    private static HttpRequest.Builder json(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+}
@@ -0,0 +1,49 @@
+package org.techspec.demotech.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class OperationStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    void record(long latencyNanos, HttpResponse<?> response, Throwable error) {
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (error != null || response.statusCode() >= 500) {
+            failed.increment();
+        } else if (response.statusCode() >= 400) {
+            rejected.increment();
+        } else {
+            succeeded.increment();
+        }
+    }
+
+    Histogram latencyMicros() {
+        return latencyMicros;
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long total() {
+        return succeeded() + rejected() + failed();
+    }
+}
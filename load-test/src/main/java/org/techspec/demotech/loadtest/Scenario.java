@@ -0,0 +1,67 @@
+package org.techspec.demotech.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+enum Scenario {
+
+    READ_HEAVY("read-heavy", Map.of(
+            Operation.GET_USER, 60,
+            Operation.GET_SUBSCRIPTIONS, 20,
+            Operation.LIST_USERS, 10,
+            Operation.TOP_SUBSCRIPTIONS, 5,
+            Operation.CREATE_SUBSCRIPTION, 5)),
+    WRITE_HEAVY("write-heavy", Map.of(
+            Operation.CREATE_USER, 35,
+            Operation.CREATE_SUBSCRIPTION, 35,
+            Operation.UPDATE_USER, 15,
+            Operation.GET_USER, 15)),
+    TOP_K("top-k", Map.of(
+            Operation.TOP_SUBSCRIPTIONS, 90,
+            Operation.CREATE_SUBSCRIPTION, 10));
+
+    private final String name;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    Scenario(String name, Map<Operation, Integer> weights) {
+        this.name = name;
+        Map<Operation, Integer> ordered = new EnumMap<>(weights);
+        this.operations = ordered.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += ordered.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    static Scenario fromName(String name) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестный сценарий: " + name
+                        + ", доступны: read-heavy, write-heavy, top-k"));
+    }
+
+    Operation next(SplittableRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Недостижимо");
+    }
+
+    Operation[] operations() {
+        return operations.clone();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
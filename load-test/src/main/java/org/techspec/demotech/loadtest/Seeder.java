@@ -0,0 +1,76 @@
+package org.techspec.demotech.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Seeder {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int SERVICE_STEP = 17;
+    private static final int SERVICE_CATALOG_SIZE = 100;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+
+    Seeder(HttpClient client, URI baseUri, ObjectMapper objectMapper) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+    }
+
+    List<Long> seed(int users, int subscriptionsPerUser, String runId) throws IOException, InterruptedException {
+        List<Long> userIds = new ArrayList<>(users);
+        for (int from = 0; from < users; from += BATCH_SIZE) {
+            ObjectNode body = objectMapper.createObjectNode();
+            ArrayNode items = body.putArray("users");
+            for (int i = from; i < Math.min(from + BATCH_SIZE, users); i++) {
+                items.addObject()
+                        .put("name", "Пользователь " + i)
+                        .put("email", "seed-" + runId + "-" + i + "@example.com");
+            }
+            for (JsonNode user : post("/users/batch", body)) {
+                userIds.add(user.get("id").asLong());
+            }
+        }
+
+        List<ObjectNode> subscriptions = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            for (int k = 0; k < Math.min(subscriptionsPerUser, SERVICE_CATALOG_SIZE); k++) {
+                subscriptions.add(objectMapper.createObjectNode()
+                        .put("userId", userIds.get(i))
+                        .put("serviceName", "Сервис-" + (i + k * SERVICE_STEP) % SERVICE_CATALOG_SIZE)
+                        .put("price", "199.00"));
+            }
+        }
+        for (int from = 0; from < subscriptions.size(); from += BATCH_SIZE) {
+            ObjectNode body = objectMapper.createObjectNode();
+            body.putArray("items").addAll(subscriptions.subList(from, Math.min(from + BATCH_SIZE, subscriptions.size())));
+            post("/subscriptions/batch", body);
+        }
+        return userIds;
+    }
+
+    private JsonNode post(String path, JsonNode body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Не удалось подготовить данные: " + path + " вернул "
+                    + response.statusCode() + ": " + new String(response.body()));
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
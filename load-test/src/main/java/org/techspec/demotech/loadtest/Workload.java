@@ -0,0 +1,55 @@
+package org.techspec.demotech.loadtest;
+
+import java.net.URI;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class Workload {
+
+    private static final int SERVICE_CATALOG_SIZE = 100;
+
+    private final URI baseUri;
+    private final long[] userIds;
+    private final long maxUserId;
+    private final String runId;
+    private final SplittableRandom random;
+    private final AtomicLong sequence = new AtomicLong();
+
+    Workload(URI baseUri, List<Long> userIds, String runId, long seed) {
+        this.baseUri = baseUri;
+        this.userIds = userIds.stream().mapToLong(Long::longValue).toArray();
+        this.maxUserId = userIds.stream().mapToLong(Long::longValue).max().orElse(0);
+        this.runId = runId;
+        this.random = new SplittableRandom(seed);
+    }
+
+    URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    long randomUserId() {
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    long randomCursor() {
+        return random.nextLong(maxUserId + 1);
+    }
+
+    String randomServiceName() {
+        double skewed = random.nextDouble() * random.nextDouble();
+        return "Сервис-" + (int) (skewed * SERVICE_CATALOG_SIZE);
+    }
+
+    long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    String runId() {
+        return runId;
+    }
+
+    SplittableRandom random() {
+        return random;
+    }
+}
@@ -0,0 +1,164 @@
+package org.techspec.demotech.analytics;
+
+import org.techspec.demotech.dto.ServiceStatsDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class PriceSegments {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    final String[] serviceNames;
+    final int[] offsets;
+    final long[] priceCents;
+    final long[] createdAtMillis;
+
+    PriceSegments(SubscriptionColumns columns) {
+        int services = columns.dictionarySize;
+        this.serviceNames = Arrays.copyOf(columns.dictionary, services);
+        this.offsets = new int[services + 1];
+        for (int row = 0; row < columns.size; row++) {
+            offsets[columns.serviceCodes[row] + 1]++;
+        }
+        for (int code = 0; code < services; code++) {
+            offsets[code + 1] += offsets[code];
+        }
+
+        this.priceCents = new long[columns.size];
+        this.createdAtMillis = new long[columns.size];
+        int[] cursors = Arrays.copyOf(offsets, services);
+        for (int row = 0; row < columns.size; row++) {
+            int position = cursors[columns.serviceCodes[row]]++;
+            priceCents[position] = columns.priceCents[row];
+            createdAtMillis[position] = columns.createdAtMillis[row];
+        }
+    }
+
+    int size() {
+        return serviceNames.length;
+    }
+
+    void sort(int code) {
+        sort(offsets[code], offsets[code + 1] - 1);
+    }
+
+    ServiceStatsDto stats(int code, long fromMillis, long toMillis) {
+        int start = offsets[code];
+        int end = offsets[code + 1];
+        int count = 0;
+        long revenueCents = 0;
+        for (int i = start; i < end; i++) {
+            long createdAt = createdAtMillis[i];
+            if (createdAt >= fromMillis && createdAt < toMillis) {
+                count++;
+                revenueCents += priceCents[i];
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+
+        int p50Rank = rank(count, 50);
+        int p90Rank = rank(count, 90);
+        int p99Rank = rank(count, 99);
+        long min = 0;
+        long p50 = 0;
+        long p90 = 0;
+        long p99 = 0;
+        long max = 0;
+        int seen = 0;
+        for (int i = start; i < end && seen < count; i++) {
+            long createdAt = createdAtMillis[i];
+            if (createdAt < fromMillis || createdAt >= toMillis) {
+                continue;
+            }
+            long price = priceCents[i];
+            seen++;
+            if (seen == 1) {
+                min = price;
+            }
+            if (seen == p50Rank) {
+                p50 = price;
+            }
+            if (seen == p90Rank) {
+                p90 = price;
+            }
+            if (seen == p99Rank) {
+                p99 = price;
+            }
+            if (seen == count) {
+                max = price;
+            }
+        }
+
+        return ServiceStatsDto.builder()
+                .serviceName(serviceNames[code])
+                .subscribers(count)
+                .revenue(money(revenueCents))
+                .averagePrice(money(revenueCents).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP))
+                .minPrice(money(min))
+                .p50Price(money(p50))
+                .p90Price(money(p90))
+                .p99Price(money(p99))
+                .maxPrice(money(max))
+                .build();
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static int rank(int count, int percent) {
+        return Math.max((int) ((percent * (long) count + 99) / 100), 1);
+    }
+
+    private void sort(int low, int high) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            long pivot = priceCents[ThreadLocalRandom.current().nextInt(low, high + 1)];
+            int less = low;
+            int greater = high;
+            int i = low;
+            while (i <= greater) {
+                long price = priceCents[i];
+                if (price < pivot) {
+                    swap(less++, i++);
+                } else if (price > pivot) {
+                    swap(i, greater--);
+                } else {
+                    i++;
+                }
+            }
+            if (less - low < high - greater) {
+                sort(low, less - 1);
+                low = greater + 1;
+            } else {
+                sort(greater + 1, high);
+                high = less - 1;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            long price = priceCents[i];
+            long createdAt = createdAtMillis[i];
+            int j = i - 1;
+            while (j >= low && priceCents[j] > price) {
+                priceCents[j + 1] = priceCents[j];
+                createdAtMillis[j + 1] = createdAtMillis[j];
+                j--;
+            }
+            priceCents[j + 1] = price;
+            createdAtMillis[j + 1] = createdAt;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long price = priceCents[i];
+        priceCents[i] = priceCents[j];
+        priceCents[j] = price;
+        long createdAt = createdAtMillis[i];
+        createdAtMillis[i] = createdAtMillis[j];
+        createdAtMillis[j] = createdAt;
+    }
+}
@@ -0,0 +1,94 @@
+package org.techspec.demotech.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+final class SubscriptionColumns {
+
+    static final long NO_CREATED_AT = Long.MIN_VALUE;
+    static final SubscriptionColumns EMPTY =
+            new SubscriptionColumns(new String[0], 0, new int[0], new long[0], new long[0], 0, 0L);
+
+    final String[] dictionary;
+    final int dictionarySize;
+    final int[] serviceCodes;
+    final long[] priceCents;
+    final long[] createdAtMillis;
+    final int size;
+    final long maxId;
+
+    private SubscriptionColumns(String[] dictionary, int dictionarySize, int[] serviceCodes, long[] priceCents,
+                                long[] createdAtMillis, int size, long maxId) {
+        this.dictionary = dictionary;
+        this.dictionarySize = dictionarySize;
+        this.serviceCodes = serviceCodes;
+        this.priceCents = priceCents;
+        this.createdAtMillis = createdAtMillis;
+        this.size = size;
+        this.maxId = maxId;
+    }
+
+    Appender appender() {
+        return new Appender(this);
+    }
+
+    static final class Appender {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] dictionary;
+        private int dictionarySize;
+        private int[] serviceCodes;
+        private long[] priceCents;
+        private long[] createdAtMillis;
+        private int size;
+        private long maxId;
+
+        private Appender(SubscriptionColumns base) {
+            this.dictionary = base.dictionary;
+            this.dictionarySize = base.dictionarySize;
+            this.serviceCodes = base.serviceCodes;
+            this.priceCents = base.priceCents;
+            this.createdAtMillis = base.createdAtMillis;
+            this.size = base.size;
+            this.maxId = base.maxId;
+            for (int code = 0; code < dictionarySize; code++) {
+                codes.put(dictionary[code], code);
+            }
+        }
+
+        void append(long id, String serviceName, BigDecimal price, long createdAt) {
+            if (size == serviceCodes.length) {
+                int capacity = Math.max(1024, size * 2);
+                serviceCodes = Arrays.copyOf(serviceCodes, capacity);
+                priceCents = Arrays.copyOf(priceCents, capacity);
+                createdAtMillis = Arrays.copyOf(createdAtMillis, capacity);
+            }
+            serviceCodes[size] = code(serviceName);
+            priceCents[size] = price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            createdAtMillis[size] = createdAt;
+            size++;
+            maxId = Math.max(maxId, id);
+        }
+
+        SubscriptionColumns build() {
+            return new SubscriptionColumns(dictionary, dictionarySize, serviceCodes, priceCents, createdAtMillis,
+                    size, maxId);
+        }
+
+        private int code(String serviceName) {
+            Integer code = codes.get(serviceName);
+            if (code != null) {
+                return code;
+            }
+            if (dictionarySize == dictionary.length) {
+                dictionary = Arrays.copyOf(dictionary, Math.max(64, dictionarySize * 2));
+            }
+            dictionary[dictionarySize] = serviceName;
+            codes.put(serviceName, dictionarySize);
+            return dictionarySize++;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.techspec.demotech.analytics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.techspec.demotech.dto.ServiceStatsDto;
+import org.techspec.demotech.dto.SubscriptionStatsDto;
+import org.techspec.demotech.exception.ServiceBusyException;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntConsumer;
+
+@Slf4j
+public class SubscriptionStatsSnapshot implements AutoCloseable {
+
+    private static final String LOAD_SQL =
+            "SELECT id, service_name, price, created_at FROM subscriptions WHERE id > ? ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final Duration fullRebuildInterval;
+    private final ForkJoinPool pool;
+    private final Semaphore queries;
+    private final Clock clock;
+    private final Timer refreshTimer;
+
+    private volatile Snapshot snapshot;
+
+    public SubscriptionStatsSnapshot(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     int fetchSize,
+                                     Duration fullRebuildInterval,
+                                     int parallelism,
+                                     int maxConcurrentQueries) {
+        this(jdbcTemplate, transactionManager, meterRegistry, fetchSize, fullRebuildInterval, parallelism,
+                maxConcurrentQueries, Clock.systemDefaultZone());
+    }
+
+    SubscriptionStatsSnapshot(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              int fetchSize,
+                              Duration fullRebuildInterval,
+                              int parallelism,
+                              int maxConcurrentQueries,
+                              Clock clock) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Параллелизм аналитики должен быть больше 0");
+        }
+        if (maxConcurrentQueries <= 0) {
+            throw new IllegalArgumentException("Число одновременных запросов аналитики должно быть больше 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.fullRebuildInterval = fullRebuildInterval;
+        this.pool = new ForkJoinPool(parallelism);
+        this.queries = new Semaphore(maxConcurrentQueries);
+        this.clock = clock;
+        this.refreshTimer = Timer.builder("demotech.analytics.snapshot.refresh")
+                .register(meterRegistry);
+        Gauge.builder("demotech.analytics.snapshot.rows", this, SubscriptionStatsSnapshot::getRows)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        try {
+            refreshTimer.record(this::load);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обновить снимок аналитики подписок: {}", e.getMessage());
+        }
+    }
+
+    public SubscriptionStatsDto stats(LocalDateTime from, LocalDateTime to) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new ServiceBusyException("Снимок аналитики подписок еще не построен");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше его конца");
+        }
+        if (from == null && to == null) {
+            return current.allTime();
+        }
+        if (!queries.tryAcquire()) {
+            throw new ServiceBusyException("Слишком много одновременных запросов статистики подписок");
+        }
+        try {
+            return stats(current.segments(), current.refreshedAt(), from, to);
+        } finally {
+            queries.release();
+        }
+    }
+
+    public long getRows() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.columns().size;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private void load() {
+        Snapshot current = snapshot;
+        LocalDateTime now = LocalDateTime.now(clock);
+        boolean rebuild = current == null || !now.isBefore(current.rebuiltAt().plus(fullRebuildInterval));
+        SubscriptionColumns base = rebuild ? SubscriptionColumns.EMPTY : current.columns();
+
+        SubscriptionColumns.Appender appender = base.appender();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    LOAD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, base.maxId);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp createdAt = rs.getTimestamp(4);
+            appender.append(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3),
+                    createdAt == null ? SubscriptionColumns.NO_CREATED_AT : createdAt.getTime());
+        }));
+        SubscriptionColumns loaded = appender.build();
+        PriceSegments segments = new PriceSegments(loaded);
+        forEach(segments.size(), segments::sort);
+        snapshot = new Snapshot(loaded, segments, stats(segments, now, null, null), now,
+                rebuild ? now : current.rebuiltAt());
+
+        if (rebuild) {
+            log.info("Снимок аналитики подписок перестроен: строк {}, сервисов {}",
+                    loaded.size, loaded.dictionarySize);
+        } else if (loaded.size > base.size) {
+            log.debug("Снимок аналитики подписок дополнен: новых строк {}", loaded.size - base.size);
+        }
+    }
+
+    private SubscriptionStatsDto stats(PriceSegments segments, LocalDateTime refreshedAt,
+                                       LocalDateTime from, LocalDateTime to) {
+        long fromMillis = from == null ? Long.MIN_VALUE : Timestamp.valueOf(from).getTime();
+        long toMillis = to == null ? Long.MAX_VALUE : Timestamp.valueOf(to).getTime();
+
+        ServiceStatsDto[] services = new ServiceStatsDto[segments.size()];
+        forEach(services.length, code -> services[code] = segments.stats(code, fromMillis, toMillis));
+
+        List<ServiceStatsDto> serviceStats = new ArrayList<>();
+        long subscribers = 0;
+        BigDecimal revenue = BigDecimal.ZERO.setScale(2);
+        for (ServiceStatsDto service : services) {
+            if (service != null) {
+                serviceStats.add(service);
+                subscribers += service.getSubscribers();
+                revenue = revenue.add(service.getRevenue());
+            }
+        }
+        serviceStats.sort(Comparator.comparing(ServiceStatsDto::getRevenue).reversed()
+                .thenComparing(ServiceStatsDto::getServiceName));
+
+        return SubscriptionStatsDto.builder()
+                .from(from)
+                .to(to)
+                .snapshotRefreshedAt(refreshedAt)
+                .snapshotRows(segments.priceCents.length)
+                .subscribers(subscribers)
+                .revenue(revenue)
+                .services(Collections.unmodifiableList(serviceStats))
+                .build();
+    }
+
+    private void forEach(int tasks, IntConsumer task) {
+        if (tasks > 0) {
+            pool.invoke(new RangeAction(0, tasks, task));
+        }
+    }
+
+    private record Snapshot(SubscriptionColumns columns,
+                            PriceSegments segments,
+                            SubscriptionStatsDto allTime,
+                            LocalDateTime refreshedAt,
+                            LocalDateTime rebuiltAt) {
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+
+        private final int start;
+        private final int end;
+        private final IntConsumer task;
+
+        private RangeAction(int start, int end, IntConsumer task) {
+            this.start = start;
+            this.end = end;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                task.accept(start);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new RangeAction(start, middle, task), new RangeAction(middle, end, task));
+        }
+    }
+}
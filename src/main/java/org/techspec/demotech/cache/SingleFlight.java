@@ -0,0 +1,99 @@
+package org.techspec.demotech.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.techspec.demotech.exception.ServiceBusyException;
+import org.techspec.demotech.jdbc.ReplicaRoutingContext;
+import org.techspec.demotech.util.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+public class SingleFlight implements MeterBinder {
+
+    private final ConcurrentHashMap<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final long timeoutNanos;
+
+    public SingleFlight(@Value("${app.single-flight.timeout:PT2S}") Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String name, Object key, Supplier<V> loader) {
+        FlightKey flightKey = new FlightKey(name, key, ReplicaRoutingContext.isPrimaryForced());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = flights.putIfAbsent(flightKey, flight);
+        if (existing == null) {
+            leaders.increment();
+            try {
+                V value = loader.get();
+                flight.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(flightKey, flight);
+            }
+        }
+
+        followers.increment();
+        try {
+            return (V) existing.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException("Превышено время ожидания общего запроса " + name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Ожидание общего запроса " + name + " прервано");
+        }
+    }
+
+    public void forget(String name, Object key) {
+        forgetAll(name, List.of(key));
+    }
+
+    public void forgetAll(String name, Collection<?> keys) {
+        TransactionCallbacks.afterCommit(() -> keys.forEach(key -> {
+            flights.remove(new FlightKey(name, key, false));
+            flights.remove(new FlightKey(name, key, true));
+        }));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("demotech.singleflight.calls", leaders, LongAdder::sum)
+                .tag("role", "leader")
+                .register(registry);
+        FunctionCounter.builder("demotech.singleflight.calls", followers, LongAdder::sum)
+                .tag("role", "follower")
+                .register(registry);
+        Gauge.builder("demotech.singleflight.inflight", flights, ConcurrentHashMap::size)
+                .register(registry);
+    }
+
+    private record FlightKey(String name, Object key, boolean primary) {
+    }
+}
@@ -0,0 +1,114 @@
+package org.techspec.demotech.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.util.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+@Component
+public class UserCache implements MeterBinder {
+
+    private final Cache<Long, Optional<UserDto>> users;
+    private final Cache<Long, Boolean> existence;
+
+    @Autowired
+    public UserCache(@Value("${app.cache.users.maximum-size:100000}") long maximumSize,
+                     @Value("${app.cache.users.ttl:PT5M}") Duration ttl,
+                     @Value("${app.cache.users.negative-ttl:PT30S}") Duration negativeTtl) {
+        this(maximumSize, ttl, negativeTtl, Ticker.systemTicker());
+    }
+
+    UserCache(long maximumSize, Duration ttl, Duration negativeTtl, Ticker ticker) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceExpiry<Optional<UserDto>>(ttl, negativeTtl, Optional::isPresent))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.existence = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceExpiry<Boolean>(ttl, negativeTtl, Boolean::booleanValue))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<UserDto> getUser(Long id, Function<Long, Optional<UserDto>> loader) {
+        return users.get(id, loader);
+    }
+
+    public Map<Long, Optional<UserDto>> getUsers(Collection<Long> ids,
+                                                 Function<Set<? extends Long>, Map<Long, Optional<UserDto>>> loader) {
+        return users.getAll(ids, loader);
+    }
+
+    public boolean exists(Long id, Predicate<Long> loader) {
+        return existence.get(id, loader::test);
+    }
+
+    public Map<Long, Boolean> existAll(Collection<Long> ids, Function<Set<? extends Long>, Map<Long, Boolean>> loader) {
+        return existence.getAll(ids, loader);
+    }
+
+    public void evict(Long id) {
+        evictAll(List.of(id));
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        TransactionCallbacks.afterCommit(() -> {
+            users.invalidateAll(ids);
+            existence.invalidateAll(ids);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+        CaffeineCacheMetrics.monitor(registry, existence, "userExistence");
+    }
+
+    private static final class PresenceExpiry<V> implements Expiry<Long, V> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+        private final Predicate<V> present;
+
+        private PresenceExpiry(Duration ttl, Duration negativeTtl, Predicate<V> present) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+            this.present = present;
+        }
+
+        @Override
+        public long expireAfterCreate(Long key, V value, long currentTime) {
+            return present.test(value) ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
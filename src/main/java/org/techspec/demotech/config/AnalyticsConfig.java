@@ -0,0 +1,34 @@
+package org.techspec.demotech.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.techspec.demotech.analytics.SubscriptionStatsSnapshot;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.analytics", name = "enabled", havingValue = "true")
+@Slf4j
+public class AnalyticsConfig {
+
+    @Bean
+    public SubscriptionStatsSnapshot subscriptionStatsSnapshot(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.analytics.fetch-size:5000}") int fetchSize,
+            @Value("${app.analytics.full-rebuild-interval:PT1H}") Duration fullRebuildInterval,
+            @Value("${app.analytics.parallelism:0}") int parallelism,
+            @Value("${app.analytics.max-concurrent-queries:2}") int maxConcurrentQueries) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Снимок аналитики подписок: потоков {}, полная перестройка раз в {}", threads, fullRebuildInterval);
+        return new SubscriptionStatsSnapshot(jdbcTemplate, transactionManager, meterRegistry,
+                fetchSize, fullRebuildInterval, threads, maxConcurrentQueries);
+    }
+}
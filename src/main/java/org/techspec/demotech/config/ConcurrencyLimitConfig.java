@@ -0,0 +1,60 @@
+package org.techspec.demotech.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.techspec.demotech.limit.AdaptiveConcurrencyLimiter;
+import org.techspec.demotech.limit.ConcurrencyLimitFilter;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.concurrency-limit", name = "enabled", havingValue = "true")
+@Slf4j
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            Environment environment,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${app.concurrency-limit.low-priority-threshold:0.8}") double lowPriorityThreshold,
+            @Value("${app.concurrency-limit.retry-after:PT1S}") Duration retryAfter) {
+        Map<ConcurrencyLimitFilter.Group, AdaptiveConcurrencyLimiter> limiters =
+                new EnumMap<>(ConcurrencyLimitFilter.Group.class);
+        limiters.put(ConcurrencyLimitFilter.Group.USER_READS,
+                limiter(environment, "user-reads", 50, 10, 400, tolerance));
+        limiters.put(ConcurrencyLimitFilter.Group.WRITES,
+                limiter(environment, "writes", 20, 5, 200, tolerance));
+        limiters.put(ConcurrencyLimitFilter.Group.TOP,
+                limiter(environment, "top", 5, 1, 50, tolerance));
+        limiters.put(ConcurrencyLimitFilter.Group.BULK,
+                limiter(environment, "bulk", 4, 1, 20, tolerance));
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limiters, lowPriorityThreshold, retryAfter, objectMapper, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(Environment environment, String group,
+                                                      int initialLimit, int minLimit, int maxLimit,
+                                                      double tolerance) {
+        String prefix = "app.concurrency-limit.groups." + group + ".";
+        int initial = environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit);
+        int min = environment.getProperty(prefix + "min-limit", Integer.class, minLimit);
+        int max = environment.getProperty(prefix + "max-limit", Integer.class, maxLimit);
+        log.info("Адаптивный лимит конкурентности для группы {}: старт {}, границы {}-{}", group, initial, min, max);
+        return new AdaptiveConcurrencyLimiter(group, initial, min, max, tolerance);
+    }
+}
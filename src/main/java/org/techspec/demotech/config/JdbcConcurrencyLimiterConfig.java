@@ -0,0 +1,35 @@
+package org.techspec.demotech.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.techspec.demotech.jdbc.ConcurrencyLimitingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.jdbc.limiter", name = "enabled", havingValue = "true")
+@Slf4j
+public class JdbcConcurrencyLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcConcurrencyLimiter(
+            @Value("${app.jdbc.limiter.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+            @Value("${app.jdbc.limiter.acquire-timeout:PT5S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    log.info("Ограничение одновременных JDBC-соединений для {}: {}, ожидание до {}",
+                            beanName, maxConcurrency, acquireTimeout);
+                    return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
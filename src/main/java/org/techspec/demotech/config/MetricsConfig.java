@@ -0,0 +1,48 @@
+package org.techspec.demotech.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.techspec.demotech.metrics.EntityLoadCountingIntegrator;
+import org.techspec.demotech.metrics.QueryCountingSessionListener;
+import org.techspec.demotech.metrics.StatementCountingDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingHibernateCustomizer() {
+        return properties -> {
+            properties.put("hibernate.session.events.auto", QueryCountingSessionListener.class.getName());
+            properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(new EntityLoadCountingIntegrator()));
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package org.techspec.demotech.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.techspec.demotech.outbox.FileOutboxSink;
+import org.techspec.demotech.outbox.InMemoryOutboxSink;
+import org.techspec.demotech.outbox.OutboxRelay;
+import org.techspec.demotech.outbox.OutboxSink;
+import org.techspec.demotech.repository.OutboxEventRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.outbox.relay", name = "enabled", havingValue = "true")
+@Slf4j
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "file", matchIfMissing = true)
+    public FileOutboxSink fileOutboxSink(@Value("${app.outbox.file:outbox/events.ndjson}") Path path,
+                                         ObjectMapper objectMapper) throws IOException {
+        log.info("События outbox выгружаются в файл {}", path.toAbsolutePath());
+        return new FileOutboxSink(path, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "memory")
+    public InMemoryOutboxSink inMemoryOutboxSink() {
+        return new InMemoryOutboxSink();
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository,
+                                   OutboxSink outboxSink,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.outbox.relay.batch-size:1000}") int batchSize) {
+        return new OutboxRelay(outboxEventRepository, outboxSink, transactionManager, meterRegistry, batchSize);
+    }
+}
@@ -0,0 +1,75 @@
+package org.techspec.demotech.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.support.RouterFunctionMapping;
+import org.techspec.demotech.controller.ReactiveReadHandler;
+import org.techspec.demotech.exception.GlobalExceptionHandler;
+import org.techspec.demotech.repository.ReactiveReadRepository;
+import org.techspec.demotech.service.SubscriptionLeaderboard;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.reactive-reads", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReactiveReadConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveReadConnectionPool(
+            @Value("${app.reactive-reads.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${app.reactive-reads.pool.initial-size:2}") int initialSize,
+            @Value("${app.reactive-reads.pool.max-size:20}") int maxSize,
+            @Value("${app.reactive-reads.pool.max-acquire-time:PT5S}") Duration maxAcquireTime) {
+        log.info("Реактивное чтение через R2DBC: {}, пул {}-{}, ожидание до {}", url, initialSize, maxSize, maxAcquireTime);
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-reads")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    public ReactiveReadRepository reactiveReadRepository(ConnectionPool reactiveReadConnectionPool) {
+        return new ReactiveReadRepository(DatabaseClient.create(reactiveReadConnectionPool));
+    }
+
+    @Bean
+    public ReactiveReadHandler reactiveReadHandler(
+            ReactiveReadRepository reactiveReadRepository,
+            SubscriptionLeaderboard leaderboard,
+            GlobalExceptionHandler exceptionHandler,
+            @Value("${app.reactive-reads.timeout:PT10S}") Duration timeout) {
+        return new ReactiveReadHandler(reactiveReadRepository, leaderboard, exceptionHandler, timeout);
+    }
+
+    @Bean
+    public RouterFunctionMapping reactiveReadMapping(ReactiveReadHandler handler, HttpMessageConverters converters) {
+        RouterFunctionMapping mapping = new RouterFunctionMapping(RouterFunctions.route()
+                .GET("/users/{id:\\d+}", request -> request.param("include").isEmpty(), handler::getUserById)
+                .GET("/users/{userId:\\d+}/subscriptions", handler::getUserSubscriptions)
+                .GET("/subscriptions/top", request -> request.param("window").isEmpty(), handler::getTopSubscriptions)
+                .build());
+        mapping.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        mapping.setMessageConverters(converters.getConverters());
+        return mapping;
+    }
+}
@@ -0,0 +1,82 @@
+package org.techspec.demotech.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.techspec.demotech.jdbc.ReadYourWritesFilter;
+import org.techspec.demotech.jdbc.ReplicaLagMonitor;
+import org.techspec.demotech.jdbc.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.replicas", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingDataSource(
+            @Value("${app.replicas.urls}") List<String> urls,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${app.replicas.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int maximumPoolSize,
+            @Value("${app.replicas.max-lag:PT2S}") Duration maxLag,
+            @Value("${app.replicas.lag-query:}") String lagQuery) {
+        return new OrderedBeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource primary)) {
+                    return bean;
+                }
+                log.info("Чтение в readOnly-транзакциях направляется на реплики {}, допустимое отставание {}",
+                        urls, maxLag);
+                List<DataSource> replicas = new ArrayList<>(urls.size());
+                for (int i = 0; i < urls.size(); i++) {
+                    HikariDataSource replica = new HikariDataSource();
+                    replica.setPoolName("replica-" + i);
+                    replica.setJdbcUrl(urls.get(i));
+                    replica.setUsername(username);
+                    replica.setPassword(password);
+                    replica.setMaximumPoolSize(maximumPoolSize);
+                    replica.setReadOnly(true);
+                    replicas.add(replica);
+                }
+                return new LazyConnectionDataSourceProxy(
+                        new ReplicaRoutingDataSource(primary, replicas, maxLag,
+                                lagQuery.isBlank() ? ReplicaRoutingDataSource.DEFAULT_LAG_QUERY : lagQuery));
+            }
+        };
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            DataSource dataSource,
+            @Value("${app.replicas.lag-check-interval-ms:1000}") long lagCheckIntervalMs) throws SQLException {
+        return new ReplicaLagMonitor(dataSource.unwrap(ReplicaRoutingDataSource.class),
+                Duration.ofMillis(lagCheckIntervalMs));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${app.replicas.read-your-writes-window:PT5S}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+
+    private interface OrderedBeanPostProcessor extends BeanPostProcessor, Ordered {
+
+        @Override
+        default int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.techspec.demotech.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.sql-budget")
+public class SqlBudgetProperties {
+
+    private Mode mode = Mode.LOG;
+    private long defaultLimit = 50;
+    private int repeatThreshold = 10;
+    private Map<String, Long> endpoints = new HashMap<>();
+
+    public long limitFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultLimit);
+    }
+
+    public enum Mode {
+        LOG,
+        REJECT
+    }
+}
@@ -0,0 +1,33 @@
+package org.techspec.demotech.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.techspec.demotech.service.SubscriptionGroupCommitter;
+import org.techspec.demotech.service.SubscriptionService;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.subscriptions.group-commit", name = "enabled", havingValue = "true")
+@Slf4j
+public class SubscriptionGroupCommitConfig {
+
+    @Bean
+    public SubscriptionGroupCommitter subscriptionGroupCommitter(
+            SubscriptionService subscriptionService,
+            MeterRegistry meterRegistry,
+            @Value("${app.subscriptions.group-commit.max-batch-size:500}") int maxBatchSize,
+            @Value("${app.subscriptions.group-commit.max-wait:PT0.005S}") Duration maxWait,
+            @Value("${app.subscriptions.group-commit.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.subscriptions.group-commit.flushers:2}") int flushers,
+            @Value("${app.subscriptions.group-commit.timeout:PT5S}") Duration timeout) {
+        log.info("Групповой коммит подписок: пачка до {}, ожидание до {} мс, очередь {}, потоков {}",
+                maxBatchSize, maxWait.toMillis(), queueCapacity, flushers);
+        return new SubscriptionGroupCommitter(subscriptionService, meterRegistry,
+                maxBatchSize, maxWait, queueCapacity, flushers, timeout);
+    }
+}
@@ -0,0 +1,23 @@
+package org.techspec.demotech.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.techspec.demotech.metrics.RequestQueryMetricsInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<SqlBudgetProperties> sqlBudget;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters -> registry.addInterceptor(
+                new RequestQueryMetricsInterceptor(meters, sqlBudget.getIfAvailable(SqlBudgetProperties::new))));
+    }
+}
@@ -0,0 +1,120 @@
+package org.techspec.demotech.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.techspec.demotech.exception.GlobalExceptionHandler;
+import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.repository.ReactiveReadRepository;
+import org.techspec.demotech.service.SubscriptionLeaderboard;
+import org.techspec.demotech.service.SubscriptionService;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveReadHandler {
+
+    private final ReactiveReadRepository repository;
+    private final SubscriptionLeaderboard leaderboard;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final Duration timeout;
+
+    public ServerResponse getUserById(ServerRequest request) {
+        return async(Mono.defer(() -> user(Long.valueOf(request.pathVariable("id")),
+                request.headers().header(HttpHeaders.IF_NONE_MATCH))));
+    }
+
+    public ServerResponse getUserSubscriptions(ServerRequest request) {
+        return async(Mono.defer(() -> subscriptions(Long.valueOf(request.pathVariable("userId")),
+                request.headers().header(HttpHeaders.IF_NONE_MATCH))));
+    }
+
+    public ServerResponse getTopSubscriptions(ServerRequest request) {
+        return async(Mono.fromCallable(() -> top(request.param("limit")
+                .map(Integer::valueOf)
+                .orElse(SubscriptionService.DEFAULT_TOP_LIMIT))));
+    }
+
+    Mono<ServerResponse> user(Long id, List<String> ifNoneMatch) {
+        log.debug("Реактивный запрос информации о пользователе с ID: {}", id);
+        return repository.findUserById(id)
+                .switchIfEmpty(Mono.error(() -> userNotFound(id)))
+                .map(user -> {
+                    String eTag = UserController.userETag(user.getVersion());
+                    return matches(ifNoneMatch, eTag)
+                            ? notModified(eTag)
+                            : ServerResponse.ok().eTag(eTag).body(user);
+                });
+    }
+
+    Mono<ServerResponse> subscriptions(Long userId, List<String> ifNoneMatch) {
+        log.debug("Реактивный запрос подписок для пользователя ID: {}", userId);
+        return repository.findSubscriptionsVersionById(userId)
+                .switchIfEmpty(Mono.error(() -> userNotFound(userId)))
+                .flatMap(version -> {
+                    String eTag = SubscriptionController.subscriptionsETag(version);
+                    if (matches(ifNoneMatch, eTag)) {
+                        return Mono.just(notModified(eTag));
+                    }
+                    return repository.findSubscriptionsByUserId(userId)
+                            .collectList()
+                            .map(subscriptions -> ServerResponse.ok().eTag(eTag).body(subscriptions));
+                });
+    }
+
+    ServerResponse top(int limit) {
+        int topLimit = Math.min(Math.max(limit, 1), SubscriptionService.MAX_TOP_LIMIT);
+        log.debug("Реактивный запрос топ-{} популярных подписок", topLimit);
+        return ServerResponse.ok().body(leaderboard.top(topLimit));
+    }
+
+    private ServerResponse async(Mono<ServerResponse> response) {
+        return ServerResponse.async(response.onErrorResume(e -> Mono.just(error(e))), timeout);
+    }
+
+    ServerResponse error(Throwable e) {
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> entity;
+        if (e instanceof UserNotFoundException notFound) {
+            entity = exceptionHandler.handleUserNotFound(notFound);
+        } else if (e instanceof IllegalArgumentException illegalArgument) {
+            entity = exceptionHandler.handleIllegalArgument(illegalArgument);
+        } else if (e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException) {
+            entity = exceptionHandler.handleDatabaseUnavailable((Exception) e);
+        } else {
+            entity = exceptionHandler.handleGenericException(e instanceof Exception ex ? ex : new RuntimeException(e));
+        }
+        return ServerResponse.status(entity.getStatusCode()).body(entity.getBody());
+    }
+
+    private static ServerResponse notModified(String eTag) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals("\"" + eTag + "\"") || tag.equals(eTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static UserNotFoundException userNotFound(Long id) {
+        return new UserNotFoundException("Пользователь с ID " + id + " не найден");
+    }
+}
@@ -8,15 +8,26 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.techspec.demotech.analytics.SubscriptionStatsSnapshot;
 import org.techspec.demotech.dto.CreateSubscriptionRequest;
+import org.techspec.demotech.dto.CreateSubscriptionsBatchRequest;
+import org.techspec.demotech.dto.SubscriptionBatchResultDto;
 import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.SubscriptionStatsDto;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.dto.UserSubscriptionsDto;
+import org.techspec.demotech.service.SubscriptionGroupCommitter;
+import org.techspec.demotech.service.SubscriptionRollups;
 import org.techspec.demotech.service.SubscriptionService;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,34 +36,76 @@ import java.util.Map;
 public class SubscriptionController {
 
     private final SubscriptionService subscriptionService;
+    private final ObjectProvider<SubscriptionGroupCommitter> groupCommitter;
+    private final ObjectProvider<SubscriptionStatsSnapshot> statsSnapshot;
 
     @PostMapping("/users/{userId}/subscriptions")
     @Operation(summary = "Добавить подписку", description = "Добавление подписки пользователю")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Подписка успешно создана"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
-            @ApiResponse(responseCode = "400", description = "Некорректные данные или подписка уже существует")
+            @ApiResponse(responseCode = "400", description = "Некорректные данные или подписка уже существует"),
+            @ApiResponse(responseCode = "504", description = "Запись не подтверждена вовремя, подписка могла быть создана")
     })
     public ResponseEntity<SubscriptionDto> createSubscription(
             @Parameter(description = "ID пользователя", required = true)
             @PathVariable Long userId,
             @Valid @RequestBody CreateSubscriptionRequest request) {
-        log.info("Запрос на создание подписки для пользователя ID: {}", userId);
-        SubscriptionDto subscription = subscriptionService.createSubscription(userId, request);
+        log.debug("Запрос на создание подписки для пользователя ID: {}", userId);
+        SubscriptionGroupCommitter committer = groupCommitter.getIfAvailable();
+        SubscriptionDto subscription = committer != null
+                ? committer.createSubscription(userId, request)
+                : subscriptionService.createSubscription(userId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(subscription);
     }
 
+    @PostMapping("/subscriptions/batch")
+    @Operation(summary = "Добавить подписки пакетом",
+            description = "Пакетное создание подписок для многих пользователей с результатом по каждому элементу")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пакет обработан, результат по каждому элементу"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные")
+    })
+    public ResponseEntity<SubscriptionBatchResultDto> createSubscriptions(
+            @Valid @RequestBody CreateSubscriptionsBatchRequest request) {
+        log.debug("Запрос на пакетное создание подписок, количество: {}", request.getItems().size());
+        SubscriptionBatchResultDto result = subscriptionService.createSubscriptions(request.getItems());
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/users/{userId}/subscriptions")
     @Operation(summary = "Получить подписки пользователя", description = "Получение списка подписок пользователя")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список подписок получен"),
+            @ApiResponse(responseCode = "304", description = "Список подписок не изменился (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
     public ResponseEntity<List<SubscriptionDto>> getUserSubscriptions(
             @Parameter(description = "ID пользователя", required = true)
-            @PathVariable Long userId) {
-        log.info("Запрос подписок для пользователя ID: {}", userId);
+            @PathVariable Long userId,
+            WebRequest webRequest) {
+        log.debug("Запрос подписок для пользователя ID: {}", userId);
+        String eTag = subscriptionsETag(subscriptionService.getSubscriptionsVersion(userId));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         List<SubscriptionDto> subscriptions = subscriptionService.getUserSubscriptions(userId);
+        return ResponseEntity.ok().eTag(eTag).body(subscriptions);
+    }
+
+    @GetMapping("/subscriptions")
+    @Operation(summary = "Получить подписки по списку пользователей",
+            description = "Получение подписок пользователей по списку ID (до " + SubscriptionService.MAX_LOOKUP_USER_IDS
+                    + ") в порядке запроса с явной отметкой ненайденных пользователей")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результат по каждому пользователю"),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список ID")
+    })
+    public ResponseEntity<List<UserSubscriptionsDto>> getSubscriptionsByUserIds(
+            @Parameter(description = "ID пользователей через запятую", required = true)
+            @RequestParam List<Long> userIds) {
+        log.debug("Запрос подписок по списку пользователей, количество: {}", userIds.size());
+        List<UserSubscriptionsDto> subscriptions = subscriptionService.getSubscriptionsByUserIds(userIds);
         return ResponseEntity.ok(subscriptions);
     }
 
@@ -67,18 +120,55 @@ public class SubscriptionController {
             @PathVariable Long userId,
             @Parameter(description = "ID подписки", required = true)
             @PathVariable Long subscriptionId) {
-        log.info("Запрос на удаление подписки ID: {} для пользователя ID: {}", subscriptionId, userId);
+        log.debug("Запрос на удаление подписки ID: {} для пользователя ID: {}", subscriptionId, userId);
         subscriptionService.deleteSubscription(userId, subscriptionId);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/subscriptions/top")
-    @Operation(summary = "Получить ТОП-3 популярных подписок",
-            description = "Получение списка 3 самых популярных подписок по количеству подписчиков")
-    @ApiResponse(responseCode = "200", description = "Список популярных подписок получен")
-    public ResponseEntity<List<Map<String, Object>>> getTopSubscriptions() {
-        log.info("Запрос топ-3 популярных подписок");
-        List<Map<String, Object>> topSubscriptions = subscriptionService.getTopSubscriptions();
+    @Operation(summary = "Получить ТОП популярных подписок",
+            description = "Получение списка самых популярных подписок по количеству подписчиков (по умолчанию ТОП-3). "
+                    + "С параметром window - по приросту подписчиков за последний час, сутки или неделю")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Список популярных подписок получен"),
+            @ApiResponse(responseCode = "400", description = "Неизвестное окно рейтинга")
+    })
+    public ResponseEntity<List<TopSubscriptionDto>> getTopSubscriptions(
+            @Parameter(description = "Количество сервисов (от 1 до " + SubscriptionService.MAX_TOP_LIMIT + ")")
+            @RequestParam(defaultValue = "" + SubscriptionService.DEFAULT_TOP_LIMIT) int limit,
+            @Parameter(description = "Окно рейтинга: 1h, 24h или 7d (без параметра - за все время)")
+            @RequestParam(required = false) String window) {
+        log.debug("Запрос топ-{} популярных подписок, окно: {}", limit, window);
+        List<TopSubscriptionDto> topSubscriptions = window == null
+                ? subscriptionService.getTopSubscriptions(limit)
+                : subscriptionService.getTopSubscriptions(SubscriptionRollups.Window.fromParam(window), limit);
         return ResponseEntity.ok(topSubscriptions);
     }
+
+    @GetMapping("/subscriptions/stats")
+    @Operation(summary = "Получить статистику цен подписок",
+            description = "Выручка, средняя цена, перцентили цен и число подписчиков по сервисам. "
+                    + "Считается по периодически обновляемому снимку в памяти, а не по таблице подписок")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Статистика получена"),
+            @ApiResponse(responseCode = "400", description = "Некорректный период"),
+            @ApiResponse(responseCode = "404", description = "Аналитика отключена"),
+            @ApiResponse(responseCode = "503", description = "Снимок аналитики еще не построен")
+    })
+    public ResponseEntity<SubscriptionStatsDto> getSubscriptionStats(
+            @Parameter(description = "Начало периода по дате создания подписки (включительно)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Конец периода по дате создания подписки (не включительно)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("Запрос статистики подписок за период {} - {}", from, to);
+        SubscriptionStatsSnapshot snapshot = statsSnapshot.getIfAvailable();
+        if (snapshot == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(snapshot.stats(from, to));
+    }
+
+    static String subscriptionsETag(long version) {
+        return "s" + version;
+    }
 }
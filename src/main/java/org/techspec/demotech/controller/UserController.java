@@ -5,17 +5,28 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.techspec.demotech.dto.CreateUserRequest;
+import org.techspec.demotech.dto.CreateUsersBatchRequest;
 import org.techspec.demotech.dto.UpdateUserRequest;
 import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.dto.UserLookupDto;
+import org.techspec.demotech.dto.UserPageDto;
+import org.techspec.demotech.dto.UserProfileDto;
+import org.techspec.demotech.service.UserExportService;
 import org.techspec.demotech.service.UserService;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -25,7 +36,10 @@ import java.util.List;
 @Tag(name = "Users", description = "API для управления пользователями")
 public class UserController {
 
+    static final String INCLUDE_SUBSCRIPTIONS = "subscriptions";
+
     private final UserService userService;
+    private final UserExportService userExportService;
 
     @PostMapping
     @Operation(summary = "Создать пользователя", description = "Создание нового пользователя")
@@ -34,34 +48,123 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Некорректные данные")
     })
     public ResponseEntity<UserDto> createUser(@Valid @RequestBody CreateUserRequest request) {
-        log.info("Запрос на создание пользователя: {}", request.getEmail());
+        log.debug("Запрос на создание пользователя: {}", request.getEmail());
         UserDto user = userService.createUser(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(user);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Создать пользователей пакетом", description = "Пакетное создание пользователей (до 10000 за запрос)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Пользователи успешно созданы"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные или email уже существуют")
+    })
+    public ResponseEntity<List<UserDto>> createUsers(@Valid @RequestBody CreateUsersBatchRequest request) {
+        log.debug("Запрос на пакетное создание пользователей, количество: {}", request.getUsers().size());
+        List<UserDto> users = userService.createUsers(request.getUsers());
+        return ResponseEntity.status(HttpStatus.CREATED).body(users);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получить пользователя", description = "Получение информации о пользователе по ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Пользователь найден"),
+            @ApiResponse(responseCode = "304", description = "Пользователь не изменился (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
     public ResponseEntity<UserDto> getUserById(
             @Parameter(description = "ID пользователя", required = true)
-            @PathVariable Long id) {
-        log.info("Запрос информации о пользователе с ID: {}", id);
+            @PathVariable Long id,
+            @Parameter(description = "Встроить связанные данные (subscriptions)")
+            @RequestParam(required = false) List<String> include,
+            WebRequest webRequest) {
+        log.debug("Запрос информации о пользователе с ID: {}, include: {}", id, include);
+        if (includesSubscriptions(include)) {
+            UserDto user = userService.getUserWithSubscriptions(id);
+            String eTag = userETag(user.getVersion()) + "-"
+                    + SubscriptionController.subscriptionsETag(user.getSubscriptionsVersion());
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(user);
+        }
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(userETag(userService.getUserVersion(id)))) {
+            return null;
+        }
         UserDto user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok().eTag(userETag(user.getVersion())).body(user);
+    }
+
+    @GetMapping("/{id}/profile")
+    @Operation(summary = "Получить профиль пользователя",
+            description = "Получение пользователя вместе с подписками одним запросом к денормализованной модели чтения")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Профиль найден"),
+            @ApiResponse(responseCode = "304", description = "Профиль не изменился (If-None-Match)"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    public ResponseEntity<UserProfileDto> getUserProfile(
+            @Parameter(description = "ID пользователя", required = true)
+            @PathVariable Long id,
+            WebRequest webRequest) {
+        log.debug("Запрос профиля пользователя с ID: {}", id);
+        UserProfileDto profile = userService.getUserProfile(id);
+        if (profile.getRevision() == null) {
+            return ResponseEntity.ok(profile);
+        }
+        String eTag = profileETag(profile.getRevision());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(profile);
     }
 
     @GetMapping
-    @Operation(summary = "Получить всех пользователей", description = "Получение списка всех пользователей")
-    @ApiResponse(responseCode = "200", description = "Список пользователей получен")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        log.info("Запрос списка всех пользователей");
-        List<UserDto> users = userService.getAllUsers();
+    @Operation(summary = "Получить пользователей",
+            description = "Постраничное получение пользователей по курсору (ID последнего пользователя предыдущей страницы)")
+    @ApiResponse(responseCode = "200", description = "Страница пользователей получена")
+    public ResponseEntity<UserPageDto> getUsers(
+            @Parameter(description = "ID, после которого начинается страница")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Размер страницы (от 1 до " + UserService.MAX_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "" + UserService.DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Встроить связанные данные (subscriptions)")
+            @RequestParam(required = false) List<String> include) {
+        log.debug("Запрос страницы пользователей после ID: {}, размер: {}, include: {}", after, limit, include);
+        UserPageDto page = includesSubscriptions(include)
+                ? userService.getUsers(after, limit, true)
+                : userService.getUsers(after, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Получить пользователей по списку ID",
+            description = "Получение пользователей по списку ID (до " + UserService.MAX_LOOKUP_IDS
+                    + ") в порядке запроса с явной отметкой ненайденных")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результат по каждому ID"),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список ID")
+    })
+    public ResponseEntity<List<UserLookupDto>> getUsersByIds(
+            @Parameter(description = "ID пользователей через запятую", required = true)
+            @RequestParam List<Long> ids) {
+        log.debug("Запрос пользователей по списку ID, количество: {}", ids.size());
+        List<UserLookupDto> users = userService.getUsersByIds(ids);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузить пользователей",
+            description = "Потоковая выгрузка всех пользователей с подписками в формате NDJSON")
+    @ApiResponse(responseCode = "200", description = "Выгрузка выполнена")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        log.debug("Запрос выгрузки пользователей с подписками");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        userExportService.exportUsers(response.getOutputStream());
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Обновить пользователя", description = "Обновление данных пользователя")
     @ApiResponses(value = {
@@ -73,7 +176,7 @@ public class UserController {
             @Parameter(description = "ID пользователя", required = true)
             @PathVariable Long id,
             @Valid @RequestBody UpdateUserRequest request) {
-        log.info("Запрос на обновление пользователя с ID: {}", id);
+        log.debug("Запрос на обновление пользователя с ID: {}", id);
         UserDto user = userService.updateUser(id, request);
         return ResponseEntity.ok(user);
     }
@@ -87,8 +190,28 @@ public class UserController {
     public ResponseEntity<Void> deleteUser(
             @Parameter(description = "ID пользователя", required = true)
             @PathVariable Long id) {
-        log.info("Запрос на удаление пользователя с ID: {}", id);
+        log.debug("Запрос на удаление пользователя с ID: {}", id);
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static boolean includesSubscriptions(List<String> include) {
+        if (include == null) {
+            return false;
+        }
+        for (String value : include) {
+            if (!INCLUDE_SUBSCRIPTIONS.equals(value.trim())) {
+                throw new IllegalArgumentException("Неизвестное значение include: " + value);
+            }
+        }
+        return !include.isEmpty();
+    }
+
+    static String userETag(long version) {
+        return "v" + version;
+    }
+
+    private static String profileETag(long revision) {
+        return "p" + revision;
+    }
 }
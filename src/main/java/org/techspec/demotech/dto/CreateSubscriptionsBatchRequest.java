@@ -0,0 +1,20 @@
+package org.techspec.demotech.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateSubscriptionsBatchRequest {
+
+    @NotEmpty(message = "Список подписок не должен быть пустым")
+    @Size(max = 10000, message = "За один запрос можно создать не более 10000 подписок")
+    private List<@Valid SubscriptionBatchItem> items;
+}
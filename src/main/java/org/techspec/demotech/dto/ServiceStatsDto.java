@@ -0,0 +1,24 @@
+package org.techspec.demotech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceStatsDto {
+    private String serviceName;
+    private long subscribers;
+    private BigDecimal revenue;
+    private BigDecimal averagePrice;
+    private BigDecimal minPrice;
+    private BigDecimal p50Price;
+    private BigDecimal p90Price;
+    private BigDecimal p99Price;
+    private BigDecimal maxPrice;
+}
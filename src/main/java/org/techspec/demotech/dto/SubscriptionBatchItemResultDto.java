@@ -0,0 +1,26 @@
+package org.techspec.demotech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionBatchItemResultDto {
+
+    public enum Status {
+        CREATED,
+        USER_NOT_FOUND,
+        DUPLICATE
+    }
+
+    private int index;
+    private Long userId;
+    private String serviceName;
+    private Status status;
+    private SubscriptionDto subscription;
+    private String message;
+}
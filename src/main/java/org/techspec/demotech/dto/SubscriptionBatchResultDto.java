@@ -0,0 +1,18 @@
+package org.techspec.demotech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionBatchResultDto {
+    private int created;
+    private int failed;
+    private List<SubscriptionBatchItemResultDto> results;
+}
@@ -0,0 +1,24 @@
+package org.techspec.demotech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionStatsDto {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private LocalDateTime snapshotRefreshedAt;
+    private long snapshotRows;
+    private long subscribers;
+    private BigDecimal revenue;
+    private List<ServiceStatsDto> services;
+}
@@ -0,0 +1,15 @@
+package org.techspec.demotech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopSubscriptionDto {
+    private String serviceName;
+    private long subscribersCount;
+}
@@ -1,11 +1,14 @@
 package org.techspec.demotech.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -17,4 +20,13 @@ public class UserDto {
     private String email;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SubscriptionDto> subscriptions;
+
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    private Long subscriptionsVersion;
 }
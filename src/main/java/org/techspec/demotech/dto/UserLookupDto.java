@@ -0,0 +1,19 @@
+package org.techspec.demotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserLookupDto {
+    private Long id;
+    private boolean found;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UserDto user;
+}
@@ -0,0 +1,18 @@
+package org.techspec.demotech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPageDto {
+    private List<UserDto> items;
+    private Long nextCursor;
+    private long approximateTotal;
+}
@@ -0,0 +1,21 @@
+package org.techspec.demotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSubscriptionsDto {
+    private Long userId;
+    private boolean found;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SubscriptionDto> subscriptions;
+}
@@ -0,0 +1,41 @@
+package org.techspec.demotech.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "subscription_rollups")
+@IdClass(SubscriptionRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionRollup {
+
+    public static final LocalDateTime ALL_TIME_BUCKET = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Id
+    @Column(name = "service_name", nullable = false)
+    private String serviceName;
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long subscriptions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String serviceName;
+        private LocalDateTime bucketStart;
+    }
+}
@@ -0,0 +1,40 @@
+package org.techspec.demotech.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "subscription_rollup_deltas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionRollupDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscription_rollup_deltas_id_seq")
+    @SequenceGenerator(name = "subscription_rollup_deltas_id_seq", sequenceName = "subscription_rollup_deltas_id_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "service_name", nullable = false)
+    private String serviceName;
+
+    @Column(nullable = false)
+    private long delta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
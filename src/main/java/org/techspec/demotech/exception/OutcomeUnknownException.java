@@ -0,0 +1,7 @@
+package org.techspec.demotech.exception;
+
+public class OutcomeUnknownException extends RuntimeException {
+    public OutcomeUnknownException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package org.techspec.demotech.exception;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+public class ServiceBusyException extends DataAccessResourceFailureException {
+
+    public static final String REQUEST_ATTRIBUTE = ServiceBusyException.class.getName();
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
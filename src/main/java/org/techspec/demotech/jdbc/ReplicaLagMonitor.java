@@ -0,0 +1,64 @@
+package org.techspec.demotech.jdbc;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder, AutoCloseable {
+
+    static final String THREAD_NAME = "replica-lag-monitor";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, Duration interval) {
+        this.routingDataSource = routingDataSource;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void check() {
+        try {
+            routingDataSource.refreshLag();
+        } catch (RuntimeException e) {
+            log.warn("Проверка отставания реплик завершилась ошибкой: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < routingDataSource.getReplicaCount(); i++) {
+            int replica = i;
+            Gauge.builder("demotech.replica.lag", routingDataSource, source -> lagOrNaN(source, replica))
+                    .tag("replica", Integer.toString(replica))
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("demotech.replica.healthy", routingDataSource, source -> source.isHealthy(replica) ? 1 : 0)
+                    .tag("replica", Integer.toString(replica))
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        routingDataSource.close();
+    }
+
+    private static double lagOrNaN(ReplicaRoutingDataSource source, int replica) {
+        long lag = source.getLagMillis(replica);
+        return lag == Long.MAX_VALUE ? Double.NaN : lag;
+    }
+}
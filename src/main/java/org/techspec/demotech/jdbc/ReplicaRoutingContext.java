@@ -0,0 +1,35 @@
+package org.techspec.demotech.jdbc;
+
+import java.util.function.Supplier;
+
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static void forcePrimary() {
+        PRIMARY_FORCED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_FORCED.remove();
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (isPrimaryForced()) {
+            return action.get();
+        }
+        forcePrimary();
+        try {
+            return action.get();
+        } finally {
+            clear();
+        }
+    }
+}
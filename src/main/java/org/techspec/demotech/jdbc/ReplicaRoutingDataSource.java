@@ -0,0 +1,134 @@
+package org.techspec.demotech.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String DEFAULT_LAG_QUERY = "SELECT CASE "
+            + "WHEN pg_is_in_recovery() AND pg_last_wal_receive_lsn() IS DISTINCT FROM pg_last_wal_replay_lsn() "
+            + "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) "
+            + "ELSE 0 END";
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica-";
+
+    private static final long UNAVAILABLE = Long.MAX_VALUE;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicLongArray lagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag, String lagQuery) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Для маршрутизации чтения нужна хотя бы одна реплика");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            lagMillis.set(i, UNAVAILABLE);
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRoutingContext.isPrimaryForced()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            if (lagMillis.get(index) <= maxLagMillis) {
+                return REPLICA + index;
+            }
+        }
+        return PRIMARY;
+    }
+
+    public void refreshLag() {
+        for (int i = 0; i < replicas.size(); i++) {
+            long lag = measureLag(i);
+            long previous = lagMillis.getAndSet(i, lag);
+            boolean healthy = lag <= maxLagMillis;
+            if (healthy != previous <= maxLagMillis) {
+                if (healthy) {
+                    log.info("Реплика {} снова принимает чтение, отставание {} мс", i, lag);
+                } else {
+                    log.warn("Реплика {} исключена из чтения: отставание выше порога {} мс", i, maxLagMillis);
+                }
+            }
+        }
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public long getLagMillis(int replica) {
+        return lagMillis.get(replica);
+    }
+
+    public boolean isHealthy(int replica) {
+        return lagMillis.get(replica) <= maxLagMillis;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private long measureLag(int replica) {
+        try (Connection connection = replicas.get(replica).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? Math.max(resultSet.getLong(1), 0L) : UNAVAILABLE;
+        } catch (SQLException e) {
+            log.warn("Не удалось измерить отставание реплики {}: {}", replica, e.getMessage());
+            return UNAVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.techspec.demotech.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 1.0 / 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Некорректные границы лимита конкурентности " + name
+                    + ": " + minLimit + " <= " + initialLimit + " <= " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int observedInFlight = inFlight.getAndDecrement();
+        update(rttNanos, observedInFlight, false);
+    }
+
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        update(0, 0, true);
+    }
+
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getUtilization() {
+        return inFlight.get() / limit;
+    }
+
+    private synchronized void update(long rttNanos, int observedInFlight, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = limit * BACKOFF_RATIO;
+        } else {
+            if (shortRttNanos == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+            }
+            shortRttNanos += (rttNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+            longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+            if (longRttNanos > shortRttNanos * 2) {
+                longRttNanos = shortRttNanos * 2;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+            newLimit = limit * gradient + Math.sqrt(limit);
+            if (newLimit > limit && observedInFlight < limit / 2) {
+                return;
+            }
+        }
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,211 @@
+package org.techspec.demotech.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.techspec.demotech.exception.GlobalExceptionHandler;
+import org.techspec.demotech.exception.ServiceBusyException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum Group {
+        USER_READS,
+        WRITES,
+        TOP,
+        BULK
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+
+    private static final Set<Group> LOW_PRIORITY = EnumSet.of(Group.TOP, Group.BULK);
+    private static final Set<String> BULK_WRITES = Set.of("/users/batch", "/subscriptions/batch");
+
+    private final Map<Group, AdaptiveConcurrencyLimiter> limiters;
+    private final Map<Group, Counter> rejected = new EnumMap<>(Group.class);
+    private final double lowPriorityThreshold;
+    private final Duration retryAfter;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoClock;
+
+    public ConcurrencyLimitFilter(Map<Group, AdaptiveConcurrencyLimiter> limiters,
+                                  double lowPriorityThreshold,
+                                  Duration retryAfter,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this(limiters, lowPriorityThreshold, retryAfter, objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    ConcurrencyLimitFilter(Map<Group, AdaptiveConcurrencyLimiter> limiters,
+                           double lowPriorityThreshold,
+                           Duration retryAfter,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           LongSupplier nanoClock) {
+        this.limiters = new EnumMap<>(limiters);
+        this.lowPriorityThreshold = lowPriorityThreshold;
+        this.retryAfter = retryAfter;
+        this.objectMapper = objectMapper;
+        this.nanoClock = nanoClock;
+
+        this.limiters.forEach((group, limiter) -> {
+            String tag = limiter.getName();
+            Gauge.builder("demotech.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("group", tag)
+                    .register(meterRegistry);
+            Gauge.builder("demotech.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("group", tag)
+                    .register(meterRegistry);
+            rejected.put(group, Counter.builder("demotech.concurrency.rejected")
+                    .tag("group", tag)
+                    .register(meterRegistry));
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Group group = group(request);
+        AdaptiveConcurrencyLimiter limiter = group == null ? null : limiters.get(group);
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!admit(group, limiter)) {
+            rejected.get(group).increment();
+            log.debug("Запрос {} {} отклонен: группа {}, в работе {} из {}", request.getMethod(),
+                    request.getRequestURI(), limiter.getName(), limiter.getInFlight(), limiter.getLimit());
+            reject(response);
+            return;
+        }
+
+        long started = nanoClock.getAsLong();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (released.compareAndSet(false, true)) {
+                limiter.onIgnore();
+            }
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    release(limiter, released, started, outcome(request, response));
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    release(limiter, released, started, Outcome.DROPPED);
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    release(limiter, released, started, Outcome.DROPPED);
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            release(limiter, released, started, outcome(request, response));
+        }
+    }
+
+    static Group group(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/users") && !path.startsWith("/subscriptions")) {
+            return null;
+        }
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return BULK_WRITES.contains(path) ? Group.BULK : Group.WRITES;
+        }
+        if (path.equals("/subscriptions/top")) {
+            return Group.TOP;
+        }
+        if (path.equals("/users/export") || path.equals("/subscriptions") || path.equals("/subscriptions/stats")
+                || path.equals("/users") && request.getParameter("ids") != null) {
+            return Group.BULK;
+        }
+        return Group.USER_READS;
+    }
+
+    private boolean admit(Group group, AdaptiveConcurrencyLimiter limiter) {
+        if (!LOW_PRIORITY.contains(group)) {
+            return limiter.tryAcquire();
+        }
+        for (Map.Entry<Group, AdaptiveConcurrencyLimiter> entry : limiters.entrySet()) {
+            if (!LOW_PRIORITY.contains(entry.getKey()) && entry.getValue().getUtilization() >= lowPriorityThreshold) {
+                return false;
+            }
+        }
+        return limiter.tryAcquire();
+    }
+
+    private void release(AdaptiveConcurrencyLimiter limiter, AtomicBoolean released, long started, Outcome outcome) {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        switch (outcome) {
+            case SUCCESS -> limiter.onSuccess(nanoClock.getAsLong() - started);
+            case DROPPED -> limiter.onDropped();
+            case IGNORED -> limiter.onIgnore();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(retryAfter.toSeconds(), 1)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), GlobalExceptionHandler.ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message("Сервис перегружен, повторите запрос позже")
+                .build());
+    }
+
+    private static Outcome outcome(HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(ServiceBusyException.REQUEST_ATTRIBUTE) != null) {
+            return Outcome.IGNORED;
+        }
+        int status = response.getStatus();
+        if (status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value()) {
+            return Outcome.DROPPED;
+        }
+        return Outcome.SUCCESS;
+    }
+}
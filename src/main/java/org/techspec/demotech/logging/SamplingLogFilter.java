@@ -0,0 +1,91 @@
+package org.techspec.demotech.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public class SamplingLogFilter extends Filter<ILoggingEvent> {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final LongSupplier nanoClock;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicLong windowCount = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private int sampleRate = 1;
+    private long maxPerSecond;
+    private List<String> loggers = List.of();
+
+    public SamplingLogFilter() {
+        this(System::nanoTime);
+    }
+
+    SamplingLogFilter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.windowStart.set(nanoClock.getAsLong());
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void setMaxPerSecond(long maxPerSecond) {
+        this.maxPerSecond = Math.max(0, maxPerSecond);
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(Level.WARN) || !matches(event.getLoggerName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleRate > 1 && sequence.getAndIncrement() % sampleRate != 0) {
+            dropped.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        if (maxPerSecond > 0 && !tryAcquire()) {
+            dropped.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private boolean matches(String loggerName) {
+        if (loggers.isEmpty()) {
+            return true;
+        }
+        for (String prefix : loggers) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= maxPerSecond;
+    }
+}
@@ -0,0 +1,19 @@
+package org.techspec.demotech.mapper;
+
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.entity.Subscription;
+
+public final class SubscriptionMapper {
+
+    private SubscriptionMapper() {
+    }
+
+    public static SubscriptionDto toDto(Subscription subscription) {
+        return SubscriptionDto.builder()
+                .id(subscription.getId())
+                .serviceName(subscription.getServiceName())
+                .price(subscription.getPrice())
+                .createdAt(subscription.getCreatedAt())
+                .build();
+    }
+}
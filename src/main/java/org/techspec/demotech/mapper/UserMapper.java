@@ -0,0 +1,35 @@
+package org.techspec.demotech.mapper;
+
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.entity.User;
+
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static UserDto toDto(User user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .version(user.getVersion())
+                .subscriptionsVersion(user.getSubscriptionsVersion())
+                .build();
+    }
+
+    public static UserDto toDtoWithSubscriptions(User user) {
+        UserDto dto = toDto(user);
+        dto.setSubscriptions(user.getSubscriptions().stream()
+                .map(SubscriptionMapper::toDto)
+                .sorted(Comparator.comparing(SubscriptionDto::getId))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+}
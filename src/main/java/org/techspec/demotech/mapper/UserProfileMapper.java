@@ -0,0 +1,37 @@
+package org.techspec.demotech.mapper;
+
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.UserProfileDto;
+import org.techspec.demotech.entity.User;
+import org.techspec.demotech.entity.UserProfile;
+
+import java.util.List;
+
+public final class UserProfileMapper {
+
+    private UserProfileMapper() {
+    }
+
+    public static UserProfileDto toDto(UserProfile profile) {
+        return UserProfileDto.builder()
+                .id(profile.getUserId())
+                .name(profile.getName())
+                .email(profile.getEmail())
+                .createdAt(profile.getCreatedAt())
+                .updatedAt(profile.getUpdatedAt())
+                .subscriptions(profile.getSubscriptions())
+                .revision(profile.getRevision())
+                .build();
+    }
+
+    public static UserProfileDto toDto(User user, List<SubscriptionDto> subscriptions) {
+        return UserProfileDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .subscriptions(subscriptions)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package org.techspec.demotech.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static void start() {
+        start(0, false);
+    }
+
+    public static void start(long budget, boolean rejectOverBudget) {
+        CURRENT.set(new Counts(budget, rejectOverBudget));
+    }
+
+    public static Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statementPrepared(sql);
+        }
+    }
+
+    static void entityLoaded() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    static void flushed() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.flushes++;
+        }
+    }
+
+    public static final class Counts {
+
+        private final long budget;
+        private final boolean rejectOverBudget;
+        private final Map<String, Integer> statementsBySql = new LinkedHashMap<>();
+        private long statements;
+        private long entityLoads;
+        private long flushes;
+
+        private Counts(long budget, boolean rejectOverBudget) {
+            this.budget = budget;
+            this.rejectOverBudget = rejectOverBudget;
+        }
+
+        private void statementPrepared(String sql) {
+            statements++;
+            statementsBySql.merge(sql, 1, Integer::sum);
+            if (rejectOverBudget && isOverBudget()) {
+                throw new SqlBudgetExceededException(statements, budget, sql);
+            }
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+
+        public long getFlushes() {
+            return flushes;
+        }
+
+        public long getBudget() {
+            return budget;
+        }
+
+        public boolean isOverBudget() {
+            return budget > 0 && statements > budget;
+        }
+
+        public Map<String, Integer> getRepeatedQueries(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            statementsBySql.forEach((sql, count) -> {
+                if (count >= threshold && isRepeatableQuery(sql)) {
+                    repeated.put(sql, count);
+                }
+            });
+            return repeated;
+        }
+
+        private static boolean isRepeatableQuery(String sql) {
+            String normalized = sql.stripLeading().toLowerCase(Locale.ROOT);
+            return normalized.startsWith("select") && !normalized.contains("nextval(");
+        }
+    }
+}
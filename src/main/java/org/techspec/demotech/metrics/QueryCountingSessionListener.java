@@ -0,0 +1,11 @@
+package org.techspec.demotech.metrics;
+
+import org.hibernate.SessionEventListener;
+
+public class QueryCountingSessionListener implements SessionEventListener {
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        QueryCounter.flushed();
+    }
+}
@@ -0,0 +1,71 @@
+package org.techspec.demotech.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.techspec.demotech.config.SqlBudgetProperties;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Slf4j
+public class RequestQueryMetricsInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlBudgetProperties sqlBudget;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCounter.start(sqlBudget.limitFor(endpoint(request)), sqlBudget.getMode() == SqlBudgetProperties.Mode.REJECT);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        QueryCounter.Counts counts = QueryCounter.stop();
+        if (counts == null) {
+            return;
+        }
+
+        String endpoint = endpoint(request);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri(request));
+        record("demotech.request.sql.statements", "SQL-запросов за HTTP-запрос", tags, counts.getStatements());
+        record("demotech.request.entity.loads", "Загрузок сущностей Hibernate за HTTP-запрос", tags, counts.getEntityLoads());
+        record("demotech.request.flushes", "Flush сессии Hibernate за HTTP-запрос", tags, counts.getFlushes());
+
+        if (counts.isOverBudget()) {
+            log.warn("{}: выполнено SQL-запросов {} при лимите {}", endpoint, counts.getStatements(), counts.getBudget());
+            meterRegistry.counter("demotech.request.sql.budget.exceeded", tags).increment();
+        }
+        Map<String, Integer> repeated = counts.getRepeatedQueries(sqlBudget.getRepeatThreshold());
+        repeated.forEach((sql, count) ->
+                log.warn("{}: подозрение на N+1, одинаковый запрос выполнен {} раз: {}", endpoint, count, sql));
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("demotech.request.sql.repeated", tags).increment();
+        }
+    }
+
+    private void record(String name, String description, Tags tags, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(value);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        return request.getMethod() + " " + uri(request);
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package org.techspec.demotech.metrics;
+
+public class SqlBudgetExceededException extends RuntimeException {
+
+    private final long statements;
+    private final long budget;
+
+    public SqlBudgetExceededException(long statements, long budget, String sql) {
+        super("Превышен лимит SQL-запросов на запрос: " + statements + " из " + budget + ", последний: " + sql);
+        this.statements = statements;
+        this.budget = budget;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+}
@@ -0,0 +1,20 @@
+package org.techspec.demotech.outbox;
+
+import org.techspec.demotech.entity.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    public synchronized List<OutboxEvent> getEvents() {
+        return List.copyOf(events);
+    }
+}
@@ -0,0 +1,67 @@
+package org.techspec.demotech.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.entity.OutboxEvent;
+
+import java.util.Collection;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxEvents {
+
+    public static final String USER = "user";
+    public static final String SUBSCRIPTION = "subscription";
+
+    public static final String USER_CREATED = "UserCreated";
+    public static final String USER_UPDATED = "UserUpdated";
+    public static final String USER_DELETED = "UserDeleted";
+    public static final String SUBSCRIPTION_CREATED = "SubscriptionCreated";
+    public static final String SUBSCRIPTION_DELETED = "SubscriptionDeleted";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public void usersCreated(Collection<UserDto> users) {
+        users.forEach(user -> record(USER, user.getId(), USER_CREATED, userPayload(user)));
+    }
+
+    public void userUpdated(UserDto user) {
+        record(USER, user.getId(), USER_UPDATED, userPayload(user));
+    }
+
+    public void userDeleted(Long userId) {
+        record(USER, userId, USER_DELETED, objectMapper.createObjectNode().put("id", userId));
+    }
+
+    public void subscriptionCreated(Long userId, SubscriptionDto subscription) {
+        ObjectNode payload = objectMapper.valueToTree(subscription);
+        record(SUBSCRIPTION, subscription.getId(), SUBSCRIPTION_CREATED, payload.put("userId", userId));
+    }
+
+    public void subscriptionDeleted(Long userId, Long subscriptionId) {
+        record(SUBSCRIPTION, subscriptionId, SUBSCRIPTION_DELETED, objectMapper.createObjectNode()
+                .put("id", subscriptionId)
+                .put("userId", userId));
+    }
+
+    private ObjectNode userPayload(UserDto user) {
+        ObjectNode payload = objectMapper.valueToTree(user);
+        return payload.put("version", user.getVersion());
+    }
+
+    private void record(String aggregateType, Long aggregateId, String eventType, JsonNode payload) {
+        entityManager.persist(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(payload)
+                .build());
+    }
+}
@@ -0,0 +1,97 @@
+package org.techspec.demotech.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.techspec.demotech.entity.OutboxEvent;
+import org.techspec.demotech.repository.OutboxEventRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter relayed;
+    private final Timer batchTimer;
+    private final AtomicLong lastThroughput = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки outbox должен быть больше 0");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.relayed = Counter.builder("demotech.outbox.events.relayed")
+                .baseUnit("events")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("demotech.outbox.relay.batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("demotech.outbox.relay.throughput", lastThroughput, AtomicLong::get)
+                .baseUnit("events.per.second")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.outbox.relay.interval-ms:500}",
+            fixedDelayString = "${app.outbox.relay.interval-ms:500}")
+    public void relay() {
+        long started = System.nanoTime();
+        long total = 0;
+        try {
+            int claimed;
+            do {
+                claimed = relayBatch();
+                total += claimed;
+            } while (claimed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось передать события outbox, они будут повторены: {}", e.getMessage());
+        }
+
+        if (total > 0) {
+            long elapsedMicros = Math.max((System.nanoTime() - started) / 1_000, 1);
+            lastThroughput.set(total * 1_000_000 / elapsedMicros);
+            log.info("Передано событий outbox: {} за {} мс ({} событий/с)",
+                    total, elapsedMicros / 1_000, lastThroughput.get());
+        }
+    }
+
+    int relayBatch() {
+        Integer claimed = batchTimer.record(() -> transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.claimBatch(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            outboxEventRepository.deleteAllByIdInBatch(events.stream()
+                    .map(OutboxEvent::getId)
+                    .collect(Collectors.toList()));
+            return events.size();
+        }));
+        int count = claimed == null ? 0 : claimed;
+        relayed.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,11 @@
+package org.techspec.demotech.outbox;
+
+import org.techspec.demotech.entity.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws IOException;
+}
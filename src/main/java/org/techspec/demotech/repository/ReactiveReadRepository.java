@@ -0,0 +1,60 @@
+package org.techspec.demotech.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.UserDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class ReactiveReadRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<UserDto> findUserById(Long id) {
+        return databaseClient.sql("SELECT id, name, email, created_at, updated_at, version FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveReadRepository::toUserDto)
+                .one();
+    }
+
+    public Mono<Long> findSubscriptionsVersionById(Long userId) {
+        return databaseClient.sql("SELECT subscriptions_version FROM users WHERE id = :id")
+                .bind("id", userId)
+                .map(row -> row.get("subscriptions_version", Long.class))
+                .one();
+    }
+
+    public Flux<SubscriptionDto> findSubscriptionsByUserId(Long userId) {
+        return databaseClient.sql("SELECT id, service_name, price, created_at FROM subscriptions " +
+                        "WHERE user_id = :userId ORDER BY id")
+                .bind("userId", userId)
+                .map(ReactiveReadRepository::toSubscriptionDto)
+                .all();
+    }
+
+    private static UserDto toUserDto(Readable row) {
+        return UserDto.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .email(row.get("email", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    private static SubscriptionDto toSubscriptionDto(Readable row) {
+        return SubscriptionDto.builder()
+                .id(row.get("id", Long.class))
+                .serviceName(row.get("service_name", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .build();
+    }
+}
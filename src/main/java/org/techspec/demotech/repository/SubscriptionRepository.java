@@ -2,9 +2,11 @@ package org.techspec.demotech.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.techspec.demotech.entity.Subscription;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,10 +15,20 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Long
 
     List<Subscription> findByUserId(Long userId);
 
+    List<Subscription> findByUserIdInOrderByIdAsc(Collection<Long> userIds);
+
     Optional<Subscription> findByIdAndUserId(Long id, Long userId);
 
     boolean existsByUserIdAndServiceName(Long userId, String serviceName);
 
+    @Query("SELECT s.user.id, s.serviceName FROM Subscription s " +
+            "WHERE s.user.id IN :userIds AND s.serviceName IN :serviceNames")
+    List<Object[]> findExistingUserServicePairs(@Param("userIds") Collection<Long> userIds,
+                                                @Param("serviceNames") Collection<String> serviceNames);
+
+    @Query("SELECT s.id, s.serviceName, s.createdAt FROM Subscription s WHERE s.user.id = :userId ORDER BY s.id")
+    List<Object[]> findIdsServiceNamesAndCreatedAtByUserId(@Param("userId") Long userId);
+
     @Query("SELECT s.serviceName, COUNT(s) as count FROM Subscription s " +
             "GROUP BY s.serviceName ORDER BY count DESC")
     List<Object[]> findTopServicesBySubscriptionCount();
@@ -0,0 +1,17 @@
+package org.techspec.demotech.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.techspec.demotech.entity.SubscriptionRollupDelta;
+
+import java.util.List;
+
+@Repository
+public interface SubscriptionRollupDeltaRepository extends JpaRepository<SubscriptionRollupDelta, Long> {
+
+    @Query(value = "SELECT * FROM subscription_rollup_deltas ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<SubscriptionRollupDelta> claimBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,38 @@
+package org.techspec.demotech.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.techspec.demotech.entity.SubscriptionRollup;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SubscriptionRollupRepository extends JpaRepository<SubscriptionRollup, SubscriptionRollup.Key> {
+
+    @Query(value = "SELECT t.service_name, SUM(t.subscriptions) FROM (" +
+            "SELECT r.service_name, r.subscriptions FROM subscription_rollups r WHERE r.bucket_start >= :since " +
+            "UNION ALL " +
+            "SELECT d.service_name, d.delta FROM subscription_rollup_deltas d WHERE d.created_at >= :since" +
+            ") t GROUP BY t.service_name", nativeQuery = true)
+    List<Object[]> sumByServiceSince(@Param("since") LocalDateTime since);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM SubscriptionRollup r " +
+            "WHERE r.serviceName IN :serviceNames AND r.bucketStart IN :buckets " +
+            "ORDER BY r.serviceName, r.bucketStart")
+    List<SubscriptionRollup> lockBuckets(@Param("serviceNames") Collection<String> serviceNames,
+                                         @Param("buckets") Collection<LocalDateTime> buckets);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM SubscriptionRollup r " +
+            "WHERE r.bucketStart > :after AND r.bucketStart < :before " +
+            "ORDER BY r.serviceName, r.bucketStart")
+    List<SubscriptionRollup> lockBucketsBetween(@Param("after") LocalDateTime after,
+                                                @Param("before") LocalDateTime before);
+}
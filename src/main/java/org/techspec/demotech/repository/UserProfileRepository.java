@@ -0,0 +1,9 @@
+package org.techspec.demotech.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.techspec.demotech.entity.UserProfile;
+
+@Repository
+public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
+}
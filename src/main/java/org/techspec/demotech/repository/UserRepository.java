@@ -1,13 +1,63 @@
 package org.techspec.demotech.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.techspec.demotech.entity.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @EntityGraph(attributePaths = "subscriptions")
+    Optional<User> findWithSubscriptionsById(Long id);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findEmailsByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.subscriptionsVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findSubscriptionsVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.subscriptionsVersion = u.subscriptionsVersion + 1 WHERE u.id = :id")
+    int incrementSubscriptionsVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.subscriptionsVersion = u.subscriptionsVersion + 1 WHERE u.id IN :ids")
+    int incrementSubscriptionsVersions(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id = :id")
+    Optional<Long> lockById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    @Query(value = "SELECT CAST(COALESCE(MAX(reltuples), 0) AS BIGINT) FROM pg_catalog.pg_class " +
+            "WHERE relname = 'users' AND relkind = 'r'", nativeQuery = true)
+    long estimateCount();
 }
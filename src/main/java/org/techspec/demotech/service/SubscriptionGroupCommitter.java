@@ -0,0 +1,211 @@
+package org.techspec.demotech.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.techspec.demotech.dto.CreateSubscriptionRequest;
+import org.techspec.demotech.dto.SubscriptionBatchItem;
+import org.techspec.demotech.dto.SubscriptionBatchItemResultDto;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.exception.OutcomeUnknownException;
+import org.techspec.demotech.exception.ServiceBusyException;
+import org.techspec.demotech.exception.UserNotFoundException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class SubscriptionGroupCommitter implements AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final SubscriptionService subscriptionService;
+    private final BlockingQueue<PendingSubscription> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Duration timeout;
+    private final List<Thread> flushers = new ArrayList<>();
+    private final DistributionSummary batchSizes;
+    private final Counter fallbacks;
+    private volatile boolean running = true;
+
+    public SubscriptionGroupCommitter(SubscriptionService subscriptionService,
+                                      MeterRegistry meterRegistry,
+                                      int maxBatchSize,
+                                      Duration maxWait,
+                                      int queueCapacity,
+                                      int flusherThreads,
+                                      Duration timeout) {
+        if (maxBatchSize <= 0 || queueCapacity <= 0 || flusherThreads <= 0) {
+            throw new IllegalArgumentException("Размер пачки, очередь и число потоков группового коммита должны быть больше 0");
+        }
+        this.subscriptionService = subscriptionService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timeout = timeout;
+        this.batchSizes = DistributionSummary.builder("demotech.subscriptions.group-commit.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("demotech.subscriptions.group-commit.fallbacks")
+                .register(meterRegistry);
+
+        for (int i = 0; i < flusherThreads; i++) {
+            Thread flusher = new Thread(this::flushLoop, "subscription-group-commit-" + i);
+            flusher.setDaemon(true);
+            flusher.start();
+            flushers.add(flusher);
+        }
+    }
+
+    public SubscriptionDto createSubscription(Long userId, CreateSubscriptionRequest request) {
+        PendingSubscription pending = new PendingSubscription(
+                new SubscriptionBatchItem(userId, request.getServiceName(), request.getPrice()));
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceBusyException("Очередь группового коммита подписок переполнена");
+        }
+
+        try {
+            return pending.result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw abandon(pending, "Подписка не записана за " + timeout.toMillis() + " мс в режиме группового коммита");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw abandon(pending, "Ожидание группового коммита прервано");
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread flusher : flushers) {
+            flusher.join(timeout.toMillis());
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingSubscription> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSubscription first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingSubscription next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new DataAccessResourceFailureException("Групповой коммит подписок остановлен")));
+                return;
+            } catch (RuntimeException | Error e) {
+                log.error("Групповой коммит {} подписок завершился ошибкой", batch.size(), e);
+                batch.forEach(pending -> pending.result.completeExceptionally(new OutcomeUnknownException(
+                        "Групповой коммит подписки завершился ошибкой, подписка могла быть создана: "
+                                + "проверьте подписки пользователя перед повтором")));
+                if (e instanceof Error error) {
+                    throw error;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingSubscription> batch) {
+        batch.removeIf(pending -> !pending.claim());
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+        if (batch.size() == 1) {
+            commitSingle(batch.get(0));
+            return;
+        }
+
+        List<SubscriptionBatchItemResultDto> results;
+        try {
+            results = subscriptionService.createSubscriptions(batch.stream()
+                    .map(pending -> pending.item)
+                    .collect(Collectors.toList())).getResults();
+        } catch (RuntimeException e) {
+            log.warn("Групповой коммит {} подписок не удался, запись по одной: {}", batch.size(), e.getMessage());
+            fallbacks.increment();
+            batch.forEach(this::commitSingle);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            SubscriptionBatchItemResultDto result = results.get(i);
+            CompletableFuture<SubscriptionDto> future = batch.get(i).result;
+            switch (result.getStatus()) {
+                case CREATED -> future.complete(result.getSubscription());
+                case USER_NOT_FOUND -> future.completeExceptionally(new UserNotFoundException(result.getMessage()));
+                case DUPLICATE -> future.completeExceptionally(new IllegalArgumentException(result.getMessage()));
+            }
+        }
+    }
+
+    private static RuntimeException abandon(PendingSubscription pending, String reason) {
+        if (pending.abandon()) {
+            return new DataAccessResourceFailureException(reason);
+        }
+        return new OutcomeUnknownException(reason + ", но запись уже началась и подписка могла быть создана: "
+                + "проверьте подписки пользователя перед повтором");
+    }
+
+    private void commitSingle(PendingSubscription pending) {
+        try {
+            pending.result.complete(subscriptionService.createSubscription(pending.item.getUserId(),
+                    new CreateSubscriptionRequest(pending.item.getServiceName(), pending.item.getPrice())));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingSubscription {
+
+        private final SubscriptionBatchItem item;
+        private final CompletableFuture<SubscriptionDto> result = new CompletableFuture<>();
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        PendingSubscription(SubscriptionBatchItem item) {
+            this.item = item;
+        }
+
+        boolean claim() {
+            return taken.compareAndSet(false, true);
+        }
+
+        boolean abandon() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.techspec.demotech.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.util.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionLeaderboard {
+
+    static final Comparator<TopSubscriptionDto> RANKING = Comparator
+            .comparingLong(TopSubscriptionDto::getSubscribersCount).reversed()
+            .thenComparing(TopSubscriptionDto::getServiceName);
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final SubscriptionRollups subscriptionRollups;
+
+    private Map<String, Long> unconfirmedDrift;
+
+    public void recordCreated(String serviceName) {
+        recordCreated(serviceName, 1);
+    }
+
+    public void recordCreated(String serviceName, long count) {
+        TransactionCallbacks.afterCommit(() -> counter(serviceName).add(count));
+    }
+
+    public void recordDeleted(String serviceName) {
+        TransactionCallbacks.afterCommit(() -> counter(serviceName).decrement());
+    }
+
+    public List<TopSubscriptionDto> top(int limit) {
+        PriorityQueue<TopSubscriptionDto> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        counters.forEach((serviceName, counter) -> {
+            long count = counter.sum();
+            if (count <= 0) {
+                return;
+            }
+            heap.offer(new TopSubscriptionDto(serviceName, count));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+
+        List<TopSubscriptionDto> top = new ArrayList<>(heap);
+        top.sort(RANKING);
+        return top;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.leaderboard.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        Map<String, Long> actual = subscriptionRollups.totals();
+
+        Map<String, Long> drift = new HashMap<>();
+        actual.forEach((serviceName, expected) -> measureDrift(drift, serviceName, expected));
+        counters.keySet().stream()
+                .filter(serviceName -> !actual.containsKey(serviceName))
+                .forEach(serviceName -> measureDrift(drift, serviceName, 0));
+
+        boolean initial = unconfirmedDrift == null;
+        Map<String, Long> unconfirmed = new HashMap<>();
+        int corrected = 0;
+        for (Map.Entry<String, Long> entry : drift.entrySet()) {
+            if (initial || entry.getValue().equals(unconfirmedDrift.get(entry.getKey()))) {
+                counter(entry.getKey()).add(entry.getValue());
+                corrected++;
+            } else {
+                unconfirmed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        unconfirmedDrift = unconfirmed;
+
+        if (corrected > 0) {
+            log.info("Рейтинг подписок сверен с БД, исправлено счетчиков: {}", corrected);
+        }
+        if (!unconfirmed.isEmpty()) {
+            log.debug("Расхождение рейтинга с БД будет исправлено, если повторится при следующей сверке: {}",
+                    unconfirmed);
+        }
+    }
+
+    private void measureDrift(Map<String, Long> drift, String serviceName, long expected) {
+        LongAdder counter = counters.get(serviceName);
+        long difference = expected - (counter == null ? 0 : counter.sum());
+        if (difference != 0) {
+            drift.put(serviceName, difference);
+        }
+    }
+
+    private LongAdder counter(String serviceName) {
+        return counters.computeIfAbsent(serviceName, name -> new LongAdder());
+    }
+}
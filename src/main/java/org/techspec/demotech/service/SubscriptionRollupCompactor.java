@@ -0,0 +1,159 @@
+package org.techspec.demotech.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.techspec.demotech.entity.SubscriptionRollup;
+import org.techspec.demotech.entity.SubscriptionRollupDelta;
+import org.techspec.demotech.repository.SubscriptionRollupDeltaRepository;
+import org.techspec.demotech.repository.SubscriptionRollupRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class SubscriptionRollupCompactor {
+
+    private final SubscriptionRollupDeltaRepository deltaRepository;
+    private final SubscriptionRollupRepository rollupRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final Clock clock;
+
+    @Autowired
+    public SubscriptionRollupCompactor(SubscriptionRollupDeltaRepository deltaRepository,
+                                       SubscriptionRollupRepository rollupRepository,
+                                       EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.rollups.batch-size:1000}") int batchSize,
+                                       @Value("${app.rollups.retention:P8D}") Duration retention) {
+        this(deltaRepository, rollupRepository, entityManager, transactionManager, batchSize, retention,
+                Clock.systemDefaultZone());
+    }
+
+    SubscriptionRollupCompactor(SubscriptionRollupDeltaRepository deltaRepository,
+                                SubscriptionRollupRepository rollupRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                int batchSize,
+                                Duration retention,
+                                Clock clock) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки агрегатов должен быть больше 0");
+        }
+        Duration longestWindow = SubscriptionRollups.Window.WEEK.getDuration();
+        if (retention.compareTo(longestWindow.plusHours(1)) < 0) {
+            throw new IllegalArgumentException("Часовые агрегаты должны храниться дольше " + longestWindow);
+        }
+        this.deltaRepository = deltaRepository;
+        this.rollupRepository = rollupRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelayString = "${app.rollups.compaction-interval-ms:5000}",
+            fixedDelayString = "${app.rollups.compaction-interval-ms:5000}")
+    public void compact() {
+        try {
+            long compacted = 0;
+            int claimed;
+            do {
+                claimed = compactBatch();
+                compacted += claimed;
+            } while (claimed == batchSize);
+            int folded = foldExpiredBuckets();
+
+            if (compacted > 0 || folded > 0) {
+                log.debug("Агрегаты подписок уплотнены: изменений {}, свернуто часовых корзин {}", compacted, folded);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось уплотнить агрегаты подписок, попытка будет повторена: {}", e.getMessage());
+        }
+    }
+
+    int compactBatch() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<SubscriptionRollupDelta> deltas = deltaRepository.claimBatch(batchSize);
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+            Map<SubscriptionRollup.Key, Long> sums = new HashMap<>();
+            for (SubscriptionRollupDelta delta : deltas) {
+                sums.merge(new SubscriptionRollup.Key(delta.getServiceName(),
+                        delta.getCreatedAt().truncatedTo(ChronoUnit.HOURS)), delta.getDelta(), Long::sum);
+            }
+            addToBuckets(sums);
+            deltaRepository.deleteAllByIdInBatch(deltas.stream()
+                    .map(SubscriptionRollupDelta::getId)
+                    .collect(Collectors.toList()));
+            return deltas.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    int foldExpiredBuckets() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).truncatedTo(ChronoUnit.HOURS).minus(retention);
+        Integer folded = transactionTemplate.execute(status -> {
+            List<SubscriptionRollup> expired =
+                    rollupRepository.lockBucketsBetween(SubscriptionRollup.ALL_TIME_BUCKET, cutoff);
+            if (expired.isEmpty()) {
+                return 0;
+            }
+            Map<SubscriptionRollup.Key, Long> sums = new HashMap<>();
+            for (SubscriptionRollup rollup : expired) {
+                sums.merge(new SubscriptionRollup.Key(rollup.getServiceName(), SubscriptionRollup.ALL_TIME_BUCKET),
+                        rollup.getSubscriptions(), Long::sum);
+            }
+            rollupRepository.deleteAll(expired);
+            addToBuckets(sums);
+            return expired.size();
+        });
+        return folded == null ? 0 : folded;
+    }
+
+    private void addToBuckets(Map<SubscriptionRollup.Key, Long> sums) {
+        Set<String> serviceNames = sums.keySet().stream()
+                .map(SubscriptionRollup.Key::getServiceName)
+                .collect(Collectors.toSet());
+        Set<LocalDateTime> buckets = sums.keySet().stream()
+                .map(SubscriptionRollup.Key::getBucketStart)
+                .collect(Collectors.toSet());
+        Map<SubscriptionRollup.Key, SubscriptionRollup> existing = rollupRepository.lockBuckets(serviceNames, buckets)
+                .stream()
+                .collect(Collectors.toMap(
+                        rollup -> new SubscriptionRollup.Key(rollup.getServiceName(), rollup.getBucketStart()),
+                        Function.identity()));
+
+        sums.forEach((key, delta) -> {
+            SubscriptionRollup rollup = existing.get(key);
+            if (rollup != null) {
+                rollup.setSubscriptions(rollup.getSubscriptions() + delta);
+            } else {
+                entityManager.persist(SubscriptionRollup.builder()
+                        .serviceName(key.getServiceName())
+                        .bucketStart(key.getBucketStart())
+                        .subscriptions(delta)
+                        .build());
+            }
+        });
+    }
+}
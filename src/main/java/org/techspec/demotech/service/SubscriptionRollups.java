@@ -0,0 +1,125 @@
+package org.techspec.demotech.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.entity.SubscriptionRollup;
+import org.techspec.demotech.entity.SubscriptionRollupDelta;
+import org.techspec.demotech.repository.SubscriptionRollupRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+public class SubscriptionRollups {
+
+    public enum Window {
+        HOUR("1h", Duration.ofHours(1)),
+        DAY("24h", Duration.ofHours(24)),
+        WEEK("7d", Duration.ofDays(7));
+
+        private final String param;
+        private final Duration duration;
+
+        Window(String param, Duration duration) {
+            this.param = param;
+            this.duration = duration;
+        }
+
+        public String getParam() {
+            return param;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public static Window fromParam(String param) {
+            return Arrays.stream(values())
+                    .filter(window -> window.param.equals(param))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Неизвестное окно рейтинга: " + param
+                            + ", допустимые значения: 1h, 24h, 7d"));
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final SubscriptionRollupRepository rollupRepository;
+    private final Clock clock;
+
+    @Autowired
+    public SubscriptionRollups(EntityManager entityManager, SubscriptionRollupRepository rollupRepository) {
+        this(entityManager, rollupRepository, Clock.systemDefaultZone());
+    }
+
+    SubscriptionRollups(EntityManager entityManager, SubscriptionRollupRepository rollupRepository, Clock clock) {
+        this.entityManager = entityManager;
+        this.rollupRepository = rollupRepository;
+        this.clock = clock;
+    }
+
+    public void subscriptionAdded(String serviceName) {
+        record(serviceName, 1, null);
+    }
+
+    public void subscriptionsAdded(Map<String, Long> countsByServiceName) {
+        countsByServiceName.forEach((serviceName, count) -> record(serviceName, count, null));
+    }
+
+    public void subscriptionRemoved(String serviceName, LocalDateTime subscribedAt) {
+        record(serviceName, -1, creationBucket(subscribedAt));
+    }
+
+    public void subscriptionsRemoved(Map<String, List<LocalDateTime>> subscribedAtByServiceName) {
+        subscribedAtByServiceName.forEach((serviceName, subscribedAt) -> subscribedAt.stream()
+                .collect(Collectors.groupingBy(this::creationBucket, Collectors.counting()))
+                .forEach((bucket, count) -> record(serviceName, -count, bucket)));
+    }
+
+    public List<TopSubscriptionDto> top(Window window, int limit) {
+        return sumSince(windowStart(window)).entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> new TopSubscriptionDto(entry.getKey(), entry.getValue()))
+                .sorted(SubscriptionLeaderboard.RANKING)
+                .limit(limit)
+                .toList();
+    }
+
+    public Map<String, Long> totals() {
+        return sumSince(SubscriptionRollup.ALL_TIME_BUCKET);
+    }
+
+    LocalDateTime windowStart(Window window) {
+        return LocalDateTime.now(clock)
+                .truncatedTo(ChronoUnit.HOURS)
+                .minus(window.getDuration());
+    }
+
+    private LocalDateTime creationBucket(LocalDateTime subscribedAt) {
+        return (subscribedAt == null ? LocalDateTime.now(clock) : subscribedAt).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private Map<String, Long> sumSince(LocalDateTime since) {
+        Map<String, Long> sums = new HashMap<>();
+        for (Object[] row : rollupRepository.sumByServiceSince(since)) {
+            sums.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return sums;
+    }
+
+    private void record(String serviceName, long delta, LocalDateTime bucket) {
+        entityManager.persist(SubscriptionRollupDelta.builder()
+                .serviceName(serviceName)
+                .delta(delta)
+                .createdAt(bucket)
+                .build());
+    }
+}
@@ -1,65 +1,238 @@
 package org.techspec.demotech.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.techspec.demotech.cache.SingleFlight;
+import org.techspec.demotech.cache.UserCache;
 import org.techspec.demotech.dto.CreateSubscriptionRequest;
+import org.techspec.demotech.dto.SubscriptionBatchItem;
+import org.techspec.demotech.dto.SubscriptionBatchItemResultDto;
+import org.techspec.demotech.dto.SubscriptionBatchResultDto;
 import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.dto.UserSubscriptionsDto;
 import org.techspec.demotech.entity.Subscription;
-import org.techspec.demotech.entity.User;
 import org.techspec.demotech.exception.SubscriptionNotFoundException;
 import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.jdbc.ReplicaRoutingContext;
+import org.techspec.demotech.mapper.SubscriptionMapper;
+import org.techspec.demotech.outbox.OutboxEvents;
 import org.techspec.demotech.repository.SubscriptionRepository;
 import org.techspec.demotech.repository.UserRepository;
+import org.techspec.demotech.util.Chunks;
+import org.techspec.demotech.util.ConstraintViolations;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "demotech.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class SubscriptionService {
 
+    public static final int DEFAULT_TOP_LIMIT = 3;
+    public static final int MAX_TOP_LIMIT = 100;
+    public static final int MAX_LOOKUP_USER_IDS = 5000;
+    public static final String SUBSCRIPTIONS_FLIGHT = "user-subscriptions";
+    public static final String TOP_FLIGHT = "top-subscriptions";
+
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
     private final SubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final SubscriptionLeaderboard leaderboard;
+    private final UserCache userCache;
+    private final UserProfileProjection userProfileProjection;
+    private final OutboxEvents outboxEvents;
+    private final SingleFlight singleFlight;
+    private final SubscriptionRollups subscriptionRollups;
 
     @Transactional
     public SubscriptionDto createSubscription(Long userId, CreateSubscriptionRequest request) {
         log.info("Создание подписки для пользователя ID: {}, сервис: {}", userId, request.getServiceName());
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Пользователь с ID " + userId + " не найден"));
-
-        if (subscriptionRepository.existsByUserIdAndServiceName(userId, request.getServiceName())) {
-            throw new IllegalArgumentException("Подписка на сервис " + request.getServiceName() + " уже существует");
+        if (userRepository.incrementSubscriptionsVersion(userId) == 0) {
+            throw new UserNotFoundException("Пользователь с ID " + userId + " не найден");
         }
 
         Subscription subscription = Subscription.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .serviceName(request.getServiceName())
                 .price(request.getPrice())
                 .build();
 
-        Subscription savedSubscription = subscriptionRepository.save(subscription);
+        Subscription savedSubscription;
+        try {
+            savedSubscription = subscriptionRepository.saveAndFlush(subscription);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("Подписка на сервис " + request.getServiceName() + " уже существует");
+            }
+            throw e;
+        }
+        SubscriptionDto created = SubscriptionMapper.toDto(savedSubscription);
+        userProfileProjection.subscriptionAdded(userId, created);
+        outboxEvents.subscriptionCreated(userId, created);
+        singleFlight.forget(SUBSCRIPTIONS_FLIGHT, userId);
+        subscriptionRollups.subscriptionAdded(savedSubscription.getServiceName());
+        leaderboard.recordCreated(savedSubscription.getServiceName());
         log.info("Подписка создана с ID: {}", savedSubscription.getId());
 
-        return convertToDto(savedSubscription);
+        return created;
+    }
+
+    @Transactional
+    public SubscriptionBatchResultDto createSubscriptions(List<SubscriptionBatchItem> items) {
+        log.info("Пакетное создание подписок, количество: {}", items.size());
+
+        List<Long> userIds = items.stream()
+                .map(SubscriptionBatchItem::getUserId)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        Set<String> serviceNames = items.stream().map(SubscriptionBatchItem::getServiceName).collect(Collectors.toSet());
+
+        Set<Long> existingUserIds = new HashSet<>();
+        Set<SubscriptionKey> existingPairs = new HashSet<>();
+        for (List<Long> chunk : Chunks.partition(userIds, BATCH_CHUNK_SIZE)) {
+            existingUserIds.addAll(userRepository.lockExistingIds(chunk));
+            subscriptionRepository.findExistingUserServicePairs(chunk, serviceNames)
+                    .forEach(pair -> existingPairs.add(new SubscriptionKey((Long) pair[0], (String) pair[1])));
+        }
+
+        SubscriptionBatchItemResultDto[] results = new SubscriptionBatchItemResultDto[items.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            SubscriptionBatchItem item = items.get(i);
+            if (!existingUserIds.contains(item.getUserId())) {
+                results[i] = batchItemResult(i, item, SubscriptionBatchItemResultDto.Status.USER_NOT_FOUND,
+                        "Пользователь с ID " + item.getUserId() + " не найден");
+            } else if (!existingPairs.add(new SubscriptionKey(item.getUserId(), item.getServiceName()))) {
+                results[i] = batchItemResult(i, item, SubscriptionBatchItemResultDto.Status.DUPLICATE,
+                        "Подписка на сервис " + item.getServiceName() + " уже существует");
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        for (List<Integer> chunk : Chunks.partition(accepted, BATCH_CHUNK_SIZE)) {
+            List<Subscription> subscriptions = chunk.stream()
+                    .map(items::get)
+                    .map(item -> Subscription.builder()
+                            .user(userRepository.getReferenceById(item.getUserId()))
+                            .serviceName(item.getServiceName())
+                            .price(item.getPrice())
+                            .build())
+                    .collect(Collectors.toList());
+
+            subscriptionRepository.saveAll(subscriptions);
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = chunk.get(i);
+                results[index] = batchItemResult(index, items.get(index), SubscriptionBatchItemResultDto.Status.CREATED, null);
+                results[index].setSubscription(SubscriptionMapper.toDto(subscriptions.get(i)));
+                outboxEvents.subscriptionCreated(items.get(index).getUserId(), results[index].getSubscription());
+            }
+            subscriptionRepository.flush();
+            entityManager.clear();
+        }
+        List<Long> changedUserIds = accepted.stream()
+                .map(index -> items.get(index).getUserId())
+                .distinct()
+                .collect(Collectors.toList());
+        for (List<Long> chunk : Chunks.partition(changedUserIds, BATCH_CHUNK_SIZE)) {
+            userRepository.incrementSubscriptionsVersions(chunk);
+        }
+        singleFlight.forgetAll(SUBSCRIPTIONS_FLIGHT, changedUserIds);
+        userProfileProjection.subscriptionsAdded(accepted.stream()
+                .collect(Collectors.groupingBy(index -> items.get(index).getUserId(),
+                        Collectors.mapping(index -> results[index].getSubscription(), Collectors.toList()))));
+        Map<String, Long> createdByServiceName = accepted.stream()
+                .collect(Collectors.groupingBy(index -> items.get(index).getServiceName(), Collectors.counting()));
+        subscriptionRollups.subscriptionsAdded(createdByServiceName);
+        createdByServiceName.forEach(leaderboard::recordCreated);
+
+        log.info("Пакетное создание подписок завершено: создано {}, отклонено {}",
+                accepted.size(), items.size() - accepted.size());
+
+        return SubscriptionBatchResultDto.builder()
+                .created(accepted.size())
+                .failed(items.size() - accepted.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    public long getSubscriptionsVersion(Long userId) {
+        return userRepository.findSubscriptionsVersionById(userId)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь с ID " + userId + " не найден"));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<SubscriptionDto> getUserSubscriptions(Long userId) {
         log.info("Получение подписок для пользователя ID: {}", userId);
 
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException("Пользователь с ID " + userId + " не найден");
+        return singleFlight.execute(SUBSCRIPTIONS_FLIGHT, userId, () -> {
+            if (!userCache.exists(userId,
+                    key -> ReplicaRoutingContext.onPrimary(() -> userRepository.existsById(key)))) {
+                throw new UserNotFoundException("Пользователь с ID " + userId + " не найден");
+            }
+
+            return subscriptionRepository.findByUserId(userId)
+                    .stream()
+                    .map(SubscriptionMapper::toDto)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<UserSubscriptionsDto> getSubscriptionsByUserIds(List<Long> userIds) {
+        if (userIds.isEmpty() || userIds.size() > MAX_LOOKUP_USER_IDS) {
+            throw new IllegalArgumentException("Количество ID пользователей должно быть от 1 до " + MAX_LOOKUP_USER_IDS);
+        }
+        if (userIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Список ID пользователей не должен содержать пустых значений");
+        }
+        log.info("Получение подписок по списку пользователей, количество: {}", userIds.size());
+
+        Map<Long, Boolean> existing = new HashMap<>();
+        Map<Long, List<SubscriptionDto>> subscriptionsByUserId = new HashMap<>();
+        for (List<Long> chunk : Chunks.partition(new ArrayList<>(new LinkedHashSet<>(userIds)), BATCH_CHUNK_SIZE)) {
+            Map<Long, Boolean> chunkExisting = userCache.existAll(chunk, this::loadExistence);
+            existing.putAll(chunkExisting);
+            List<Long> found = chunk.stream().filter(chunkExisting::get).collect(Collectors.toList());
+            if (found.isEmpty()) {
+                continue;
+            }
+            for (Subscription subscription : subscriptionRepository.findByUserIdInOrderByIdAsc(found)) {
+                subscriptionsByUserId.computeIfAbsent(subscription.getUser().getId(), key -> new ArrayList<>())
+                        .add(SubscriptionMapper.toDto(subscription));
+            }
         }
 
-        return subscriptionRepository.findByUserId(userId)
-                .stream()
-                .map(this::convertToDto)
+        return userIds.stream()
+                .map(userId -> existing.get(userId)
+                        ? UserSubscriptionsDto.builder()
+                                .userId(userId)
+                                .found(true)
+                                .subscriptions(subscriptionsByUserId.getOrDefault(userId, List.of()))
+                                .build()
+                        : UserSubscriptionsDto.builder().userId(userId).found(false).build())
                 .collect(Collectors.toList());
     }
 
@@ -72,31 +245,50 @@ public class SubscriptionService {
                         "Подписка с ID " + subscriptionId + " не найдена для пользователя с ID " + userId));
 
         subscriptionRepository.delete(subscription);
+        userRepository.incrementSubscriptionsVersion(userId);
+        userProfileProjection.subscriptionRemoved(userId, subscriptionId);
+        outboxEvents.subscriptionDeleted(userId, subscriptionId);
+        singleFlight.forget(SUBSCRIPTIONS_FLIGHT, userId);
+        subscriptionRollups.subscriptionRemoved(subscription.getServiceName(), subscription.getCreatedAt());
+        leaderboard.recordDeleted(subscription.getServiceName());
         log.info("Подписка с ID {} удалена", subscriptionId);
     }
 
-    public List<Map<String, Object>> getTopSubscriptions() {
-        log.info("Получение топ-3 популярных подписок");
+    public List<TopSubscriptionDto> getTopSubscriptions(int limit) {
+        int topLimit = Math.min(Math.max(limit, 1), MAX_TOP_LIMIT);
+        log.info("Получение топ-{} популярных подписок", topLimit);
 
-        List<Object[]> results = subscriptionRepository.findTopServicesBySubscriptionCount();
+        return leaderboard.top(topLimit);
+    }
 
-        return results.stream()
-                .limit(3)
-                .map(result -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("serviceName", result[0]);
-                    item.put("subscribersCount", result[1]);
-                    return item;
-                })
-                .collect(Collectors.toList());
+    public List<TopSubscriptionDto> getTopSubscriptions(SubscriptionRollups.Window window, int limit) {
+        int topLimit = Math.min(Math.max(limit, 1), MAX_TOP_LIMIT);
+        log.info("Получение топ-{} популярных подписок за окно {}", topLimit, window.getParam());
+
+        return singleFlight.execute(TOP_FLIGHT, List.of(window, topLimit),
+                () -> subscriptionRollups.top(window, topLimit));
+    }
+
+    private Map<Long, Boolean> loadExistence(Set<? extends Long> userIds) {
+        Map<Long, Boolean> existence = new HashMap<>();
+        userIds.forEach(userId -> existence.put(userId, false));
+        ReplicaRoutingContext.onPrimary(() -> userRepository.findExistingIds(new ArrayList<>(userIds)))
+                .forEach(userId -> existence.put(userId, true));
+        return existence;
     }
 
-    private SubscriptionDto convertToDto(Subscription subscription) {
-        return SubscriptionDto.builder()
-                .id(subscription.getId())
-                .serviceName(subscription.getServiceName())
-                .price(subscription.getPrice())
-                .createdAt(subscription.getCreatedAt())
+    private SubscriptionBatchItemResultDto batchItemResult(int index, SubscriptionBatchItem item,
+                                                          SubscriptionBatchItemResultDto.Status status,
+                                                          String message) {
+        return SubscriptionBatchItemResultDto.builder()
+                .index(index)
+                .userId(item.getUserId())
+                .serviceName(item.getServiceName())
+                .status(status)
+                .message(message)
                 .build();
     }
+
+    private record SubscriptionKey(Long userId, String serviceName) {
+    }
 }
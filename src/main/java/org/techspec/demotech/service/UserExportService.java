@@ -0,0 +1,133 @@
+package org.techspec.demotech.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+@Service
+@Timed(value = "demotech.service", histogram = true)
+@Slf4j
+public class UserExportService {
+
+    private static final String EXPORT_SQL =
+            "SELECT u.id, u.name, u.email, u.created_at, u.updated_at, " +
+            "s.id AS subscription_id, s.service_name, s.price, s.created_at AS subscription_created_at " +
+            "FROM users u LEFT JOIN subscriptions s ON s.user_id = u.id " +
+            "ORDER BY u.id, s.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public UserExportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public long exportUsers(OutputStream out) throws IOException {
+        log.info("Выгрузка пользователей с подписками в NDJSON, fetch size: {}", fetchSize);
+
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            NdjsonUserWriter writer = new NdjsonUserWriter(generator);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, writer));
+            writer.finish();
+
+            log.info("Выгружено пользователей: {}", writer.exportedUsers);
+            return writer.exportedUsers;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class NdjsonUserWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private Long currentUserId;
+        private long exportedUsers;
+
+        private NdjsonUserWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long userId = rs.getLong("id");
+                if (currentUserId == null || currentUserId != userId) {
+                    endUser();
+                    startUser(rs, userId);
+                }
+
+                long subscriptionId = rs.getLong("subscription_id");
+                if (!rs.wasNull()) {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", subscriptionId);
+                    generator.writeStringField("serviceName", rs.getString("service_name"));
+                    generator.writeNumberField("price", rs.getBigDecimal("price"));
+                    generator.writePOJOField("createdAt",
+                            rs.getObject("subscription_created_at", LocalDateTime.class));
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void startUser(ResultSet rs, long userId) throws SQLException, IOException {
+            currentUserId = userId;
+            generator.writeStartObject();
+            generator.writeNumberField("id", userId);
+            generator.writeStringField("name", rs.getString("name"));
+            generator.writeStringField("email", rs.getString("email"));
+            generator.writePOJOField("createdAt", rs.getObject("created_at", LocalDateTime.class));
+            generator.writePOJOField("updatedAt", rs.getObject("updated_at", LocalDateTime.class));
+            generator.writeArrayFieldStart("subscriptions");
+        }
+
+        private void endUser() throws IOException {
+            if (currentUserId == null) {
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            exportedUsers++;
+        }
+
+        private void finish() throws IOException {
+            endUser();
+            currentUserId = null;
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.techspec.demotech.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.entity.User;
+import org.techspec.demotech.entity.UserProfile;
+import org.techspec.demotech.repository.UserProfileRepository;
+import org.techspec.demotech.util.Chunks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserProfileProjection {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final UserProfileRepository userProfileRepository;
+    private final EntityManager entityManager;
+
+    public void usersCreated(Collection<User> users) {
+        for (User user : users) {
+            entityManager.persist(UserProfile.builder()
+                    .user(user)
+                    .name(user.getName())
+                    .email(user.getEmail())
+                    .createdAt(user.getCreatedAt())
+                    .updatedAt(user.getUpdatedAt())
+                    .subscriptions(new ArrayList<>())
+                    .revision(0L)
+                    .build());
+        }
+    }
+
+    public void userUpdated(User user) {
+        update(user.getId(), profile -> {
+            profile.setName(user.getName());
+            profile.setEmail(user.getEmail());
+            profile.setUpdatedAt(user.getUpdatedAt());
+        });
+    }
+
+    public void subscriptionAdded(Long userId, SubscriptionDto subscription) {
+        update(userId, profile -> profile.setSubscriptions(append(profile.getSubscriptions(), List.of(subscription))));
+    }
+
+    public void subscriptionsAdded(Map<Long, List<SubscriptionDto>> subscriptionsByUserId) {
+        for (List<Long> chunk : Chunks.partition(new ArrayList<>(subscriptionsByUserId.keySet()), CHUNK_SIZE)) {
+            for (UserProfile profile : userProfileRepository.findAllById(chunk)) {
+                profile.setSubscriptions(append(profile.getSubscriptions(),
+                        subscriptionsByUserId.get(profile.getUserId())));
+                profile.setRevision(profile.getRevision() + 1);
+            }
+            userProfileRepository.flush();
+            entityManager.clear();
+        }
+    }
+
+    public void subscriptionRemoved(Long userId, Long subscriptionId) {
+        update(userId, profile -> {
+            List<SubscriptionDto> subscriptions = new ArrayList<>(profile.getSubscriptions());
+            subscriptions.removeIf(subscription -> subscriptionId.equals(subscription.getId()));
+            profile.setSubscriptions(subscriptions);
+        });
+    }
+
+    private void update(Long userId, Consumer<UserProfile> change) {
+        userProfileRepository.findById(userId).ifPresentOrElse(profile -> {
+            change.accept(profile);
+            profile.setRevision(profile.getRevision() + 1);
+        }, () -> log.warn("Профиль пользователя с ID {} отсутствует, он будет собран при чтении", userId));
+    }
+
+    private static List<SubscriptionDto> append(List<SubscriptionDto> current, List<SubscriptionDto> added) {
+        List<SubscriptionDto> subscriptions = new ArrayList<>(current.size() + added.size());
+        subscriptions.addAll(current);
+        subscriptions.addAll(added);
+        return subscriptions;
+    }
+}
@@ -1,62 +1,221 @@
 package org.techspec.demotech.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.techspec.demotech.cache.SingleFlight;
+import org.techspec.demotech.cache.UserCache;
 import org.techspec.demotech.dto.CreateUserRequest;
+import org.techspec.demotech.dto.SubscriptionDto;
 import org.techspec.demotech.dto.UpdateUserRequest;
+import org.techspec.demotech.dto.UserLookupDto;
 import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.dto.UserPageDto;
+import org.techspec.demotech.dto.UserProfileDto;
+import org.techspec.demotech.entity.Subscription;
 import org.techspec.demotech.entity.User;
 import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.jdbc.ReplicaRoutingContext;
+import org.techspec.demotech.mapper.SubscriptionMapper;
+import org.techspec.demotech.mapper.UserMapper;
+import org.techspec.demotech.mapper.UserProfileMapper;
+import org.techspec.demotech.outbox.OutboxEvents;
+import org.techspec.demotech.repository.SubscriptionRepository;
+import org.techspec.demotech.repository.UserProfileRepository;
 import org.techspec.demotech.repository.UserRepository;
+import org.techspec.demotech.util.Chunks;
+import org.techspec.demotech.util.ConstraintViolations;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "demotech.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class UserService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_LOOKUP_IDS = 5000;
+    public static final String USER_FLIGHT = "user";
+
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final EntityManager entityManager;
+    private final UserCache userCache;
+    private final UserProfileRepository userProfileRepository;
+    private final UserProfileProjection userProfileProjection;
+    private final OutboxEvents outboxEvents;
+    private final SingleFlight singleFlight;
+    private final SubscriptionRollups subscriptionRollups;
+    private final SubscriptionLeaderboard leaderboard;
 
     @Transactional
     public UserDto createUser(CreateUserRequest request) {
         log.info("Создание пользователя с email: {}", request.getEmail());
 
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Пользователь с таким email уже существует");
-        }
-
         User user = User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
                 .build();
 
-        User savedUser = userRepository.save(user);
+        User savedUser = saveAndFlush(user);
+        UserDto created = UserMapper.toDto(savedUser);
+        userProfileProjection.usersCreated(List.of(savedUser));
+        outboxEvents.usersCreated(List.of(created));
+        userCache.evict(savedUser.getId());
+        singleFlight.forget(USER_FLIGHT, savedUser.getId());
         log.info("Пользователь создан с ID: {}", savedUser.getId());
 
-        return convertToDto(savedUser);
+        return created;
     }
 
+    @Transactional
+    public List<UserDto> createUsers(List<CreateUserRequest> requests) {
+        log.info("Пакетное создание пользователей, количество: {}", requests.size());
+
+        Set<String> emails = new HashSet<>();
+        Set<String> duplicates = new LinkedHashSet<>();
+        for (CreateUserRequest request : requests) {
+            if (!emails.add(request.getEmail())) {
+                duplicates.add(request.getEmail());
+            }
+        }
+        for (List<String> chunk : Chunks.partition(new ArrayList<>(emails), BATCH_CHUNK_SIZE)) {
+            duplicates.addAll(userRepository.findEmailsByEmailIn(chunk));
+        }
+        if (!duplicates.isEmpty()) {
+            throw new IllegalArgumentException("Пользователи с такими email уже существуют: " + duplicates);
+        }
+
+        List<UserDto> created = new ArrayList<>(requests.size());
+        for (List<CreateUserRequest> chunk : Chunks.partition(requests, BATCH_CHUNK_SIZE)) {
+            List<User> users = chunk.stream()
+                    .map(request -> User.builder()
+                            .name(request.getName())
+                            .email(request.getEmail())
+                            .build())
+                    .collect(Collectors.toList());
+
+            userRepository.saveAll(users);
+            userProfileProjection.usersCreated(users);
+            List<UserDto> dtos = users.stream().map(UserMapper::toDto).collect(Collectors.toList());
+            outboxEvents.usersCreated(dtos);
+            flushCreatedUsers();
+            created.addAll(dtos);
+            entityManager.clear();
+        }
+        List<Long> createdIds = created.stream().map(UserDto::getId).collect(Collectors.toList());
+        userCache.evictAll(createdIds);
+        singleFlight.forgetAll(USER_FLIGHT, createdIds);
+
+        log.info("Создано пользователей: {}", created.size());
+        return created;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDto getUserById(Long id) {
         log.info("Поиск пользователя с ID: {}", id);
 
-        User user = userRepository.findById(id)
+        return singleFlight.execute(USER_FLIGHT, id,
+                        () -> userCache.getUser(id, key -> ReplicaRoutingContext.onPrimary(
+                                () -> userRepository.findById(key).map(UserMapper::toDto))))
                 .orElseThrow(() -> new UserNotFoundException("Пользователь с ID " + id + " не найден"));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<UserLookupDto> getUsersByIds(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("Количество ID должно быть от 1 до " + MAX_LOOKUP_IDS);
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Список ID не должен содержать пустых значений");
+        }
+        log.info("Поиск пользователей по списку ID, количество: {}", ids.size());
+
+        Map<Long, Optional<UserDto>> users = new HashMap<>();
+        for (List<Long> chunk : Chunks.partition(new ArrayList<>(new LinkedHashSet<>(ids)), BATCH_CHUNK_SIZE)) {
+            users.putAll(userCache.getUsers(chunk, this::loadUsers));
+        }
 
-        return convertToDto(user);
+        return ids.stream()
+                .map(id -> {
+                    UserDto user = users.get(id).orElse(null);
+                    return UserLookupDto.builder().id(id).found(user != null).user(user).build();
+                })
+                .collect(Collectors.toList());
     }
 
-    public List<UserDto> getAllUsers() {
-        log.info("Получение списка всех пользователей");
+    public UserDto getUserWithSubscriptions(Long id) {
+        log.info("Поиск пользователя с подписками, ID: {}", id);
 
-        return userRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
+        return userRepository.findWithSubscriptionsById(id)
+                .map(UserMapper::toDtoWithSubscriptions)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь с ID " + id + " не найден"));
+    }
+
+    public long getUserVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь с ID " + id + " не найден"));
+    }
+
+    public UserProfileDto getUserProfile(Long id) {
+        log.info("Получение профиля пользователя с ID: {}", id);
+
+        return userProfileRepository.findById(id)
+                .map(UserProfileMapper::toDto)
+                .orElseGet(() -> userRepository.findById(id)
+                        .map(user -> UserProfileMapper.toDto(user, user.getSubscriptions().stream()
+                                .map(SubscriptionMapper::toDto)
+                                .collect(Collectors.toList())))
+                        .orElseThrow(() -> new UserNotFoundException("Пользователь с ID " + id + " не найден")));
+    }
+
+    public UserPageDto getUsers(Long after, int limit) {
+        return getUsers(after, limit, false);
+    }
+
+    public UserPageDto getUsers(Long after, int limit, boolean includeSubscriptions) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long cursor = after == null ? 0L : after;
+        log.info("Получение страницы пользователей после ID: {}, размер: {}, с подписками: {}",
+                cursor, pageSize, includeSubscriptions);
+
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize + 1));
+        boolean hasNext = users.size() > pageSize;
+        List<UserDto> items = users.stream()
+                .limit(pageSize)
+                .map(UserMapper::toDto)
                 .collect(Collectors.toList());
+        if (includeSubscriptions) {
+            attachSubscriptions(items);
+        }
+
+        return UserPageDto.builder()
+                .items(items)
+                .nextCursor(hasNext ? items.get(items.size() - 1).getId() : null)
+                .approximateTotal(Math.max(userRepository.estimateCount(), 0L))
+                .build();
     }
 
     @Transactional
@@ -71,38 +230,86 @@ public class UserService {
         }
 
         if (request.getEmail() != null) {
-            if (!request.getEmail().equals(user.getEmail()) &&
-                    userRepository.existsByEmail(request.getEmail())) {
-                throw new IllegalArgumentException("Пользователь с таким email уже существует");
-            }
             user.setEmail(request.getEmail());
         }
 
-        User updatedUser = userRepository.save(user);
+        User updatedUser = saveAndFlush(user);
+        UserDto updated = UserMapper.toDto(updatedUser);
+        userProfileProjection.userUpdated(updatedUser);
+        outboxEvents.userUpdated(updated);
+        userCache.evict(id);
+        singleFlight.forget(USER_FLIGHT, id);
         log.info("Пользователь с ID {} обновлен", id);
 
-        return convertToDto(updatedUser);
+        return updated;
     }
 
     @Transactional
     public void deleteUser(Long id) {
         log.info("Удаление пользователя с ID: {}", id);
 
-        if (!userRepository.existsById(id)) {
+        if (userRepository.lockById(id).isEmpty()) {
             throw new UserNotFoundException("Пользователь с ID " + id + " не найден");
         }
+        List<Object[]> subscriptions = subscriptionRepository.findIdsServiceNamesAndCreatedAtByUserId(id);
+        userRepository.deleteUserById(id);
 
-        userRepository.deleteById(id);
+        Map<String, List<LocalDateTime>> subscribedAtByServiceName = new LinkedHashMap<>();
+        for (Object[] subscription : subscriptions) {
+            outboxEvents.subscriptionDeleted(id, (Long) subscription[0]);
+            subscribedAtByServiceName.computeIfAbsent((String) subscription[1], serviceName -> new ArrayList<>())
+                    .add((LocalDateTime) subscription[2]);
+        }
+        outboxEvents.userDeleted(id);
+        subscriptionRollups.subscriptionsRemoved(subscribedAtByServiceName);
+        for (Object[] subscription : subscriptions) {
+            leaderboard.recordDeleted((String) subscription[1]);
+        }
+        userCache.evict(id);
+        singleFlight.forget(USER_FLIGHT, id);
+        singleFlight.forget(SubscriptionService.SUBSCRIPTIONS_FLIGHT, id);
         log.info("Пользователь с ID {} удален", id);
     }
 
-    private UserDto convertToDto(User user) {
-        return UserDto.builder()
-                .id(user.getId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .createdAt(user.getCreatedAt())
-                .updatedAt(user.getUpdatedAt())
-                .build();
+    private Map<Long, Optional<UserDto>> loadUsers(Set<? extends Long> ids) {
+        Map<Long, Optional<UserDto>> users = new HashMap<>();
+        ids.forEach(id -> users.put(id, Optional.empty()));
+        ReplicaRoutingContext.onPrimary(() -> userRepository.findAllById(new ArrayList<>(ids)))
+                .forEach(user -> users.put(user.getId(), Optional.of(UserMapper.toDto(user))));
+        return users;
+    }
+
+    private void attachSubscriptions(List<UserDto> users) {
+        Map<Long, List<SubscriptionDto>> subscriptionsByUserId = new HashMap<>();
+        List<Long> ids = users.stream().map(UserDto::getId).collect(Collectors.toList());
+        for (List<Long> chunk : Chunks.partition(ids, BATCH_CHUNK_SIZE)) {
+            for (Subscription subscription : subscriptionRepository.findByUserIdInOrderByIdAsc(chunk)) {
+                subscriptionsByUserId.computeIfAbsent(subscription.getUser().getId(), key -> new ArrayList<>())
+                        .add(SubscriptionMapper.toDto(subscription));
+            }
+        }
+        users.forEach(user -> user.setSubscriptions(subscriptionsByUserId.getOrDefault(user.getId(), List.of())));
+    }
+
+    private User saveAndFlush(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("Пользователь с таким email уже существует");
+            }
+            throw e;
+        }
+    }
+
+    private void flushCreatedUsers() {
+        try {
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isUniqueViolation(e)) {
+                throw new IllegalArgumentException("Пользователи с такими email уже существуют");
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,21 @@
+package org.techspec.demotech.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Chunks {
+
+    private Chunks() {
+    }
+
+    public static <T> List<List<T>> partition(List<T> list, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер части должен быть больше 0");
+        }
+        List<List<T>> chunks = new ArrayList<>((list.size() + size - 1) / size);
+        for (int from = 0; from < list.size(); from += size) {
+            chunks.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+        return chunks;
+    }
+}
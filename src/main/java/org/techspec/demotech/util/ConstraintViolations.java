@@ -0,0 +1,25 @@
+package org.techspec.demotech.util;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+public final class ConstraintViolations {
+
+    private static final Set<String> UNIQUE_VIOLATION_STATES = Set.of("23505");
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean isUniqueViolation(Throwable exception) {
+        return hasSqlState(exception, UNIQUE_VIOLATION_STATES);
+    }
+
+    private static boolean hasSqlState(Throwable exception, Set<String> states) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && states.contains(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,2 @@
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE subscriptions_id_seq INCREMENT BY 50;
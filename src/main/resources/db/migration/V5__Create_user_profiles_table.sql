@@ -0,0 +1,21 @@
+CREATE TABLE user_profiles (
+                               user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+                               name VARCHAR(255) NOT NULL,
+                               email VARCHAR(255) NOT NULL,
+                               created_at TIMESTAMP,
+                               updated_at TIMESTAMP,
+                               subscriptions JSONB NOT NULL DEFAULT '[]'::jsonb,
+                               revision BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO user_profiles (user_id, name, email, created_at, updated_at, subscriptions, revision)
+SELECT u.id, u.name, u.email, u.created_at, u.updated_at,
+       COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                            'id', s.id,
+                            'serviceName', s.service_name,
+                            'price', s.price,
+                            'createdAt', s.created_at) ORDER BY s.id)
+                 FROM subscriptions s
+                 WHERE s.user_id = u.id), '[]'::jsonb),
+       u.version + u.subscriptions_version
+FROM users u;
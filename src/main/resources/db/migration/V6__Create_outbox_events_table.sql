@@ -0,0 +1,10 @@
+CREATE SEQUENCE outbox_events_id_seq INCREMENT BY 50;
+
+CREATE TABLE outbox_events (
+                               id BIGINT PRIMARY KEY DEFAULT nextval('outbox_events_id_seq'),
+                               aggregate_type VARCHAR(50) NOT NULL,
+                               aggregate_id BIGINT NOT NULL,
+                               event_type VARCHAR(50) NOT NULL,
+                               payload JSONB NOT NULL,
+                               created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
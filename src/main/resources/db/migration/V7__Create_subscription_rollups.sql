@@ -0,0 +1,27 @@
+CREATE TABLE subscription_rollups (
+                                      service_name VARCHAR(255) NOT NULL,
+                                      bucket_start TIMESTAMP NOT NULL,
+                                      subscriptions BIGINT NOT NULL,
+
+                                      PRIMARY KEY (service_name, bucket_start)
+);
+
+CREATE INDEX idx_subscription_rollups_bucket_start ON subscription_rollups(bucket_start);
+
+CREATE SEQUENCE subscription_rollup_deltas_id_seq INCREMENT BY 50;
+
+CREATE TABLE subscription_rollup_deltas (
+                                            id BIGINT PRIMARY KEY DEFAULT nextval('subscription_rollup_deltas_id_seq'),
+                                            service_name VARCHAR(255) NOT NULL,
+                                            delta BIGINT NOT NULL,
+                                            created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_subscription_rollup_deltas_created_at ON subscription_rollup_deltas(created_at);
+
+INSERT INTO subscription_rollups (service_name, bucket_start, subscriptions)
+SELECT service_name,
+       COALESCE(date_trunc('hour', created_at), TIMESTAMP '1970-01-01 00:00:00'),
+       COUNT(*)
+FROM subscriptions
+GROUP BY 1, 2;
@@ -1,19 +1,62 @@
 package org.techspec.demotech;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import org.techspec.demotech.analytics.SubscriptionStatsSnapshot;
+import org.techspec.demotech.dto.CreateSubscriptionRequest;
+import org.techspec.demotech.dto.CreateUserRequest;
+import org.techspec.demotech.dto.ServiceStatsDto;
+import org.techspec.demotech.dto.SubscriptionBatchItem;
+import org.techspec.demotech.dto.SubscriptionBatchResultDto;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.dto.UpdateUserRequest;
+import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.dto.UserProfileDto;
+import org.techspec.demotech.entity.OutboxEvent;
 import org.techspec.demotech.entity.User;
 import org.techspec.demotech.entity.Subscription;
+import org.techspec.demotech.entity.SubscriptionRollup;
+import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.metrics.QueryCounter;
+import org.techspec.demotech.metrics.SqlBudgetExceededException;
+import org.techspec.demotech.metrics.SqlStatementAssertions;
+import org.techspec.demotech.outbox.OutboxEvents;
+import org.techspec.demotech.repository.OutboxEventRepository;
 import org.techspec.demotech.repository.UserRepository;
 import org.techspec.demotech.repository.SubscriptionRepository;
-
+import org.techspec.demotech.repository.SubscriptionRollupDeltaRepository;
+import org.techspec.demotech.repository.SubscriptionRollupRepository;
+import org.techspec.demotech.service.SubscriptionRollupCompactor;
+import org.techspec.demotech.service.SubscriptionRollups;
+import org.techspec.demotech.service.SubscriptionService;
+import org.techspec.demotech.service.UserExportService;
+import org.techspec.demotech.service.UserService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.techspec.demotech.metrics.SqlStatementAssertions.assertNoRepeatedQueries;
+import static org.techspec.demotech.metrics.SqlStatementAssertions.assertStatementCount;
+import static org.techspec.demotech.metrics.SqlStatementAssertions.assertStatementCountAtMost;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -26,6 +69,42 @@ class DemoTechApplicationTests {
     @Autowired
     private SubscriptionRepository subscriptionRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SubscriptionRollupRepository subscriptionRollupRepository;
+
+    @Autowired
+    private SubscriptionRollupDeltaRepository subscriptionRollupDeltaRepository;
+
+    @Autowired
+    private SubscriptionRollups subscriptionRollups;
+
+    @Autowired
+    private SubscriptionRollupCompactor subscriptionRollupCompactor;
+
+    @Autowired
+    private SubscriptionStatsSnapshot subscriptionStatsSnapshot;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void contextLoads() {
 
@@ -144,6 +223,365 @@ class DemoTechApplicationTests {
         assertThat(topServices.get(0)[1]).isEqualTo(2L);
     }
 
+    @Test
+    void h2DatabaseKeysetPaginationTest() {
+
+        User user1 = userRepository.save(User.builder()
+                .name("Пользователь 1")
+                .email("page1@example.com")
+                .build());
+
+        User user2 = userRepository.save(User.builder()
+                .name("Пользователь 2")
+                .email("page2@example.com")
+                .build());
+
+        var firstPage = userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1));
+        assertThat(firstPage).extracting(User::getId).containsExactly(user1.getId());
+
+        var secondPage = userRepository.findByIdGreaterThanOrderByIdAsc(user1.getId(), Limit.of(10));
+        assertThat(secondPage).extracting(User::getId).containsExactly(user2.getId());
+
+        assertThat(userRepository.estimateCount()).isGreaterThanOrEqualTo(0L);
+    }
+
+    @Test
+    void h2DatabaseNdjsonExportTest() throws Exception {
+
+        User user1 = userRepository.save(User.builder()
+                .name("Пользователь 1")
+                .email("export1@example.com")
+                .build());
+
+        User user2 = userRepository.save(User.builder()
+                .name("Пользователь 2")
+                .email("export2@example.com")
+                .build());
+
+        subscriptionRepository.save(Subscription.builder()
+                .user(user1)
+                .serviceName("Netflix")
+                .price(new BigDecimal("299.00"))
+                .build());
+
+        subscriptionRepository.saveAndFlush(Subscription.builder()
+                .user(user1)
+                .serviceName("Spotify")
+                .price(new BigDecimal("199.00"))
+                .build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = userExportService.exportUsers(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[lines.length - 2]);
+        assertThat(first.get("id").asLong()).isEqualTo(user1.getId());
+        assertThat(first.get("subscriptions")).hasSize(2);
+        assertThat(first.get("subscriptions").get(0).get("serviceName").asText()).isEqualTo("Netflix");
+
+        JsonNode second = objectMapper.readTree(lines[lines.length - 1]);
+        assertThat(second.get("email").asText()).isEqualTo(user2.getEmail());
+        assertThat(second.get("subscriptions")).isEmpty();
+    }
+
+    @Test
+    void h2DatabaseBatchInsertTest() {
+
+        List<CreateUserRequest> requests = IntStream.range(0, 120)
+                .mapToObj(i -> new CreateUserRequest("Пакетный пользователь " + i, "batch" + i + "@example.com"))
+                .collect(Collectors.toList());
+
+        List<UserDto> created = userService.createUsers(requests);
+
+        assertThat(created).hasSize(120);
+        assertThat(created).extracting(UserDto::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(userRepository.findEmailsByEmailIn(List.of("batch0@example.com", "batch119@example.com")))
+                .containsExactlyInAnyOrder("batch0@example.com", "batch119@example.com");
+    }
+
+    @Test
+    void h2DatabaseBatchSubscriptionsTest() {
+
+        User user = userRepository.save(User.builder()
+                .name("Пользователь пакета подписок")
+                .email("batch-subscriptions@example.com")
+                .build());
+
+        SubscriptionBatchResultDto result = subscriptionService.createSubscriptions(List.of(
+                new SubscriptionBatchItem(user.getId(), "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(user.getId(), "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(-1L, "Spotify", new BigDecimal("199.00"))));
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(subscriptionRepository.existsByUserIdAndServiceName(user.getId(), "Netflix")).isTrue();
+    }
+
+    @Test
+    void h2DatabaseVersionColumnsTest() {
+
+        User user = userRepository.saveAndFlush(User.builder()
+                .name("Версионированный пользователь")
+                .email("versions@example.com")
+                .build());
+
+        assertThat(userRepository.findVersionById(user.getId())).contains(0L);
+        assertThat(userRepository.findSubscriptionsVersionById(user.getId())).contains(0L);
+
+        subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00")));
+
+        assertThat(userRepository.findSubscriptionsVersionById(user.getId())).contains(1L);
+        assertThat(subscriptionService.getSubscriptionsVersion(user.getId())).isEqualTo(1L);
+        assertThat(userRepository.findVersionById(-1L)).isEmpty();
+    }
+
+    @Test
+    void h2DatabaseDuplicateSubscriptionTest() {
+
+        User user = userRepository.saveAndFlush(User.builder()
+                .name("Пользователь с дублем подписки")
+                .email("duplicate-subscription@example.com")
+                .build());
+        subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00")));
+
+        assertThatThrownBy(() -> subscriptionService.createSubscription(-1L,
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00"))))
+                .isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Netflix");
+    }
+
+    @Test
+    void h2DatabaseDuplicateEmailTest() {
+
+        userService.createUser(new CreateUserRequest("Первый", "taken@example.com"));
+
+        assertThatThrownBy(() -> userService.createUser(new CreateUserRequest("Второй", "taken@example.com")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Пользователь с таким email уже существует");
+    }
+
+    @Test
+    void h2DatabaseDeleteUserCascadeTest() {
+
+        User user = userRepository.saveAndFlush(User.builder()
+                .name("Удаляемый пользователь")
+                .email("delete-cascade@example.com")
+                .build());
+        subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00")));
+
+        userService.deleteUser(user.getId());
+
+        assertThat(userRepository.existsById(user.getId())).isFalse();
+        assertThat(subscriptionRepository.findByUserId(user.getId())).isEmpty();
+        assertThatThrownBy(() -> userService.deleteUser(user.getId()))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void h2DatabaseQueryMetricsTest() {
+
+        User user = userRepository.saveAndFlush(User.builder()
+                .name("Пользователь метрик")
+                .email("metrics@example.com")
+                .build());
+        entityManager.clear();
+
+        QueryCounter.start();
+        try {
+            userService.getUserById(user.getId());
+        } finally {
+            QueryCounter.Counts counts = QueryCounter.stop();
+            assertThat(counts.getStatements()).isEqualTo(1);
+            assertThat(counts.getEntityLoads()).isEqualTo(1);
+        }
+
+        assertThat(meterRegistry.get("demotech.service").tag("method", "getUserById").timer().count())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find("spring.data.repository.invocations").timers()).isNotEmpty();
+        assertThat(meterRegistry.find("hibernate.statements").meter()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").meter()).isNotNull();
+    }
+
+    @Test
+    void h2DatabaseStatementBudgetTest() throws Exception {
+
+        User user = userRepository.saveAndFlush(User.builder()
+                .name("Пользователь бюджета запросов")
+                .email("sql-budget@example.com")
+                .build());
+        subscriptionService.createSubscriptions(List.of(
+                new SubscriptionBatchItem(user.getId(), "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(user.getId(), "Spotify", new BigDecimal("199.00")),
+                new SubscriptionBatchItem(user.getId(), "YouTube", new BigDecimal("99.00"))));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertStatementCount(1, () -> userService.getUserById(user.getId()));
+        assertStatementCount(2, () -> subscriptionService.getUserSubscriptions(user.getId()));
+        assertStatementCount(2, () -> userService.getUsers(null, 10));
+        assertStatementCount(1, () -> userService.getUserWithSubscriptions(user.getId()));
+        assertStatementCount(3, () -> userService.getUsers(null, 10, true));
+        assertNoRepeatedQueries(() -> userService.getUsers(null, 100, true));
+        assertStatementCountAtMost(1, () -> userService.getUsersByIds(List.of(user.getId(), -1L)));
+        assertStatementCount(0, () -> userService.getUsersByIds(List.of(-1L, user.getId())));
+        assertStatementCountAtMost(2, () -> subscriptionService.getSubscriptionsByUserIds(List.of(user.getId(), -1L)));
+        assertStatementCount(1, () -> subscriptionService.getSubscriptionsVersion(user.getId()));
+        assertNoRepeatedQueries(() -> userService.getUsers(null, 100).getItems().forEach(Object::toString));
+        assertStatementCountAtMost(4, () -> subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Okko", new BigDecimal("399.00"))));
+
+        QueryCounter.Counts export = SqlStatementAssertions.countStatements(() -> {
+            try {
+                userExportService.exportUsers(new ByteArrayOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertThat(export.getStatements()).isEqualTo(1);
+
+        QueryCounter.start(1, true);
+        try {
+            assertThatThrownBy(() -> userService.getUsers(null, 10))
+                    .isInstanceOf(SqlBudgetExceededException.class);
+        } finally {
+            QueryCounter.stop();
+        }
+    }
+
+    @Test
+    void h2DatabaseUserProfileProjectionTest() {
+
+        UserDto user = userService.createUser(new CreateUserRequest("Пользователь профиля", "profile@example.com"));
+        subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00")));
+        SubscriptionDto spotify = subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Spotify", new BigDecimal("199.00")));
+        subscriptionService.createSubscriptions(List.of(
+                new SubscriptionBatchItem(user.getId(), "YouTube", new BigDecimal("99.00"))));
+        subscriptionService.deleteSubscription(user.getId(), spotify.getId());
+        userService.updateUser(user.getId(), new UpdateUserRequest("Новое имя", null));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertStatementCount(1, () -> userService.getUserProfile(user.getId()));
+        UserProfileDto profile = userService.getUserProfile(user.getId());
+
+        assertThat(profile.getName()).isEqualTo("Новое имя");
+        assertThat(profile.getSubscriptions()).extracting(SubscriptionDto::getServiceName)
+                .containsExactly("Netflix", "YouTube");
+        assertThat(profile.getRevision()).isEqualTo(5L);
+    }
+
+    @Test
+    void h2DatabaseOutboxTest() {
+
+        UserDto user = userService.createUser(new CreateUserRequest("Пользователь outbox", "outbox@example.com"));
+        SubscriptionDto netflix = subscriptionService.createSubscription(user.getId(),
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00")));
+        subscriptionService.createSubscriptions(List.of(
+                new SubscriptionBatchItem(user.getId(), "Spotify", new BigDecimal("199.00"))));
+        subscriptionService.deleteSubscription(user.getId(), netflix.getId());
+        userService.updateUser(user.getId(), new UpdateUserRequest("Новое имя", null));
+        userService.deleteUser(user.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .sorted(Comparator.comparing(OutboxEvent::getId))
+                .collect(Collectors.toList());
+
+        assertThat(events).extracting(OutboxEvent::getEventType).containsExactly(
+                OutboxEvents.USER_CREATED,
+                OutboxEvents.SUBSCRIPTION_CREATED,
+                OutboxEvents.SUBSCRIPTION_CREATED,
+                OutboxEvents.SUBSCRIPTION_DELETED,
+                OutboxEvents.USER_UPDATED,
+                OutboxEvents.SUBSCRIPTION_DELETED,
+                OutboxEvents.USER_DELETED);
+        assertThat(events.get(1).getAggregateId()).isEqualTo(netflix.getId());
+        assertThat(events.get(1).getPayload().get("userId").asLong()).isEqualTo(user.getId());
+        assertThat(events.get(4).getPayload().get("name").asText()).isEqualTo("Новое имя");
+        assertThat(events.get(4).getPayload().get("version").asLong()).isEqualTo(1L);
+        assertThat(events.get(5).getAggregateId()).isEqualTo(events.get(2).getAggregateId());
+        assertThat(events.get(5).getPayload().get("userId").asLong()).isEqualTo(user.getId());
+    }
+
+    @Test
+    void h2DatabaseSubscriptionRollupsTest() {
+
+        UserDto first = userService.createUser(
+                new CreateUserRequest("Пользователь агрегатов 1", "rollups1@example.com"));
+        UserDto second = userService.createUser(
+                new CreateUserRequest("Пользователь агрегатов 2", "rollups2@example.com"));
+        subscriptionService.createSubscription(first.getId(),
+                new CreateSubscriptionRequest("Rollup Netflix", new BigDecimal("299.00")));
+        SubscriptionDto spotify = subscriptionService.createSubscription(first.getId(),
+                new CreateSubscriptionRequest("Rollup Spotify", new BigDecimal("199.00")));
+        subscriptionService.createSubscriptions(List.of(
+                new SubscriptionBatchItem(second.getId(), "Rollup Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(second.getId(), "Rollup Spotify", new BigDecimal("199.00"))));
+        subscriptionService.deleteSubscription(first.getId(), spotify.getId());
+        entityManager.flush();
+
+        assertThat(subscriptionService.getTopSubscriptions(SubscriptionRollups.Window.DAY, 10)).containsExactly(
+                new TopSubscriptionDto("Rollup Netflix", 2L),
+                new TopSubscriptionDto("Rollup Spotify", 1L));
+
+        subscriptionRollupCompactor.compact();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(subscriptionRollupDeltaRepository.count()).isZero();
+        assertThat(subscriptionRollupRepository.findAll()).extracting(SubscriptionRollup::getServiceName)
+                .containsExactlyInAnyOrder("Rollup Netflix", "Rollup Spotify");
+        assertStatementCount(1, () -> subscriptionService.getTopSubscriptions(SubscriptionRollups.Window.WEEK, 10));
+        assertThat(subscriptionService.getTopSubscriptions(SubscriptionRollups.Window.WEEK, 1)).containsExactly(
+                new TopSubscriptionDto("Rollup Netflix", 2L));
+
+        userService.deleteUser(second.getId());
+        entityManager.flush();
+
+        assertThat(subscriptionRollups.totals())
+                .containsEntry("Rollup Netflix", 1L)
+                .containsEntry("Rollup Spotify", 0L);
+    }
+
+    @Test
+    void h2DatabaseSubscriptionStatsSnapshotTest() {
+
+        UserDto first = userService.createUser(
+                new CreateUserRequest("Пользователь статистики 1", "stats1@example.com"));
+        UserDto second = userService.createUser(
+                new CreateUserRequest("Пользователь статистики 2", "stats2@example.com"));
+        subscriptionService.createSubscription(first.getId(),
+                new CreateSubscriptionRequest("Stats Netflix", new BigDecimal("299.00")));
+        subscriptionService.createSubscriptions(List.of(
+                new SubscriptionBatchItem(second.getId(), "Stats Netflix", new BigDecimal("399.00")),
+                new SubscriptionBatchItem(second.getId(), "Stats Spotify", new BigDecimal("169.00"))));
+        entityManager.flush();
+
+        subscriptionStatsSnapshot.refresh();
+
+        List<ServiceStatsDto> services = subscriptionStatsSnapshot.stats(null, null).getServices().stream()
+                .filter(service -> service.getServiceName().startsWith("Stats "))
+                .toList();
+        assertThat(services).extracting(ServiceStatsDto::getServiceName)
+                .containsExactly("Stats Netflix", "Stats Spotify");
+        assertThat(services.get(0).getSubscribers()).isEqualTo(2);
+        assertThat(services.get(0).getRevenue()).isEqualByComparingTo("698.00");
+        assertThat(services.get(0).getAveragePrice()).isEqualByComparingTo("349.00");
+        assertThat(services.get(0).getP50Price()).isEqualByComparingTo("299.00");
+        assertThat(services.get(0).getP90Price()).isEqualByComparingTo("399.00");
+    }
+
     @Test
     void h2DatabaseTransactionTest() {
 
@@ -0,0 +1,170 @@
+package org.techspec.demotech.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.techspec.demotech.dto.ServiceStatsDto;
+import org.techspec.demotech.dto.SubscriptionStatsDto;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SubscriptionStatsSnapshot Unit Tests")
+class SubscriptionStatsSnapshotTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private SubscriptionStatsSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:stats_snapshot;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS subscriptions (id BIGINT PRIMARY KEY, " +
+                "service_name VARCHAR(255) NOT NULL, price DECIMAL(10, 2) NOT NULL, created_at TIMESTAMP)");
+        jdbcTemplate.update("DELETE FROM subscriptions");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        snapshot = snapshot(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.close();
+    }
+
+    @Test
+    @DisplayName("Должен считать выручку, среднюю цену и перцентили по сервисам")
+    void stats_ShouldAggregatePerService() {
+        insert(1, "Netflix", "299.00", CREATED_AT);
+        insert(2, "Netflix", "399.00", CREATED_AT);
+        insert(3, "Netflix", "199.00", CREATED_AT);
+        insert(4, "Spotify", "169.00", null);
+
+        snapshot.refresh();
+        SubscriptionStatsDto stats = snapshot.stats(null, null);
+
+        assertThat(stats.getSnapshotRows()).isEqualTo(4);
+        assertThat(stats.getSubscribers()).isEqualTo(4);
+        assertThat(stats.getRevenue()).isEqualByComparingTo("1066.00");
+        assertThat(stats.getServices()).extracting(ServiceStatsDto::getServiceName).containsExactly("Netflix", "Spotify");
+        ServiceStatsDto netflix = stats.getServices().get(0);
+        assertThat(netflix.getSubscribers()).isEqualTo(3);
+        assertThat(netflix.getRevenue()).isEqualByComparingTo("897.00");
+        assertThat(netflix.getAveragePrice()).isEqualByComparingTo("299.00");
+        assertThat(netflix.getMinPrice()).isEqualByComparingTo("199.00");
+        assertThat(netflix.getP50Price()).isEqualByComparingTo("299.00");
+        assertThat(netflix.getP90Price()).isEqualByComparingTo("399.00");
+        assertThat(netflix.getMaxPrice()).isEqualByComparingTo("399.00");
+    }
+
+    @Test
+    @DisplayName("Должен фильтровать строки по периоду создания")
+    void stats_WithPeriod_ShouldFilterByCreatedAt() {
+        insert(1, "Netflix", "299.00", CREATED_AT.minusDays(1));
+        insert(2, "Netflix", "399.00", CREATED_AT);
+        insert(3, "Spotify", "169.00", null);
+
+        snapshot.refresh();
+        SubscriptionStatsDto stats = snapshot.stats(CREATED_AT, CREATED_AT.plusHours(1));
+
+        assertThat(stats.getSubscribers()).isEqualTo(1);
+        assertThat(stats.getServices()).singleElement().satisfies(service -> {
+            assertThat(service.getServiceName()).isEqualTo("Netflix");
+            assertThat(service.getRevenue()).isEqualByComparingTo("399.00");
+        });
+        assertThatThrownBy(() -> snapshot.stats(CREATED_AT, CREATED_AT))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Должен дочитывать только новые строки и перестраиваться по расписанию")
+    void refresh_ShouldAppendNewRowsAndRebuildPeriodically() {
+        insert(1, "Netflix", "299.00", CREATED_AT);
+        insert(2, "Spotify", "169.00", CREATED_AT);
+        snapshot.refresh();
+
+        jdbcTemplate.update("DELETE FROM subscriptions WHERE id = 1");
+        insert(3, "Okko", "399.00", CREATED_AT);
+        snapshot.refresh();
+
+        assertThat(snapshot.stats(null, null).getServices()).extracting(ServiceStatsDto::getServiceName)
+                .containsExactly("Okko", "Netflix", "Spotify");
+
+        SubscriptionStatsSnapshot rebuilding = snapshot(Duration.ZERO);
+        try {
+            rebuilding.refresh();
+            assertThat(rebuilding.stats(null, null).getServices()).extracting(ServiceStatsDto::getServiceName)
+                    .containsExactly("Okko", "Spotify");
+        } finally {
+            rebuilding.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Параллельный подсчет по сервисам должен совпадать с последовательным")
+    void stats_WhenManyRows_ShouldMatchSequentialTotals() {
+        int rows = 40_000;
+        List<Object[]> batch = new ArrayList<>(rows);
+        IntStream.range(0, rows).forEach(i -> batch.add(new Object[]{
+                (long) i + 1, "Service " + i % 7, BigDecimal.valueOf(i % 1000, 2), CREATED_AT}));
+        jdbcTemplate.batchUpdate("INSERT INTO subscriptions (id, service_name, price, created_at) VALUES (?, ?, ?, ?)",
+                batch);
+
+        snapshot.refresh();
+        SubscriptionStatsDto stats = snapshot.stats(null, null);
+
+        long expectedCents = IntStream.range(0, rows).mapToLong(i -> i % 1000).sum();
+        assertThat(stats.getSubscribers()).isEqualTo(rows);
+        assertThat(stats.getRevenue()).isEqualByComparingTo(BigDecimal.valueOf(expectedCents, 2));
+        assertThat(stats.getServices()).hasSize(7)
+                .allSatisfy(service -> {
+                    assertThat(service.getMinPrice()).isEqualByComparingTo("0.00");
+                    assertThat(service.getMaxPrice()).isEqualByComparingTo("9.99");
+                });
+        assertThat(stats.getServices().stream().mapToLong(ServiceStatsDto::getSubscribers).sum()).isEqualTo(rows);
+
+        ServiceStatsDto filtered = snapshot.stats(CREATED_AT.minusHours(1), CREATED_AT.plusHours(1)).getServices()
+                .stream()
+                .filter(service -> service.getServiceName().equals("Service 3"))
+                .findFirst()
+                .orElseThrow();
+        long[] expected = IntStream.range(0, rows).filter(i -> i % 7 == 3).mapToLong(i -> i % 1000).sorted().toArray();
+        assertThat(filtered.getSubscribers()).isEqualTo(expected.length);
+        assertThat(filtered.getP50Price()).isEqualByComparingTo(BigDecimal.valueOf(expected[expected.length / 2 - 1], 2));
+        assertThat(filtered.getP99Price())
+                .isEqualByComparingTo(BigDecimal.valueOf(expected[(int) Math.ceil(expected.length * 0.99) - 1], 2));
+    }
+
+    @Test
+    @DisplayName("Должен сообщать о недоступности, пока снимок не построен")
+    void stats_BeforeFirstRefresh_ShouldFail() {
+        assertThatThrownBy(() -> snapshot.stats(null, null))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    private SubscriptionStatsSnapshot snapshot(Duration fullRebuildInterval) {
+        return new SubscriptionStatsSnapshot(jdbcTemplate, transactionManager, new SimpleMeterRegistry(),
+                100, fullRebuildInterval, 2, 2);
+    }
+
+    private void insert(long id, String serviceName, String price, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO subscriptions (id, service_name, price, created_at) VALUES (?, ?, ?, ?)",
+                id, serviceName, new BigDecimal(price), createdAt);
+    }
+}
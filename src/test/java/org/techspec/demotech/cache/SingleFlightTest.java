@@ -0,0 +1,175 @@
+package org.techspec.demotech.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.jdbc.ReplicaRoutingContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SingleFlight Unit Tests")
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private SimpleMeterRegistry registry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Одновременные одинаковые запросы должны выполнять загрузку один раз")
+    void execute_ConcurrentCalls_ShouldShareOneLoad() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(5));
+
+        List<Future<String>> results = startFlight(singleFlight, () -> "значение");
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("значение");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(registry.get("demotech.singleflight.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки должна доставаться всем ожидающим")
+    void execute_WhenLoaderFails_ShouldPropagateToFollowers() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(5));
+
+        List<Future<String>> results = startFlight(singleFlight, () -> {
+            throw new UserNotFoundException("Пользователь с ID 1 не найден");
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(UserNotFoundException.class);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.execute("test", 1L, () -> "снова")).isEqualTo("снова");
+    }
+
+    @Test
+    @DisplayName("Ожидающий должен получать 503-ошибку по таймауту, не дожидаясь загрузки")
+    void execute_WhenLeaderIsSlow_ShouldTimeOutFollowers() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofMillis(50));
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("test", 1L, this::blockingLoad));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> singleFlight.execute("test", 1L, () -> "другое"))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("значение");
+    }
+
+    @Test
+    @DisplayName("Сброс должен запускать новую загрузку для последующих запросов")
+    void forget_ShouldStartNewFlight() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(5));
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("test", 1L, this::blockingLoad));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        singleFlight.forget("test", 1L);
+
+        assertThat(singleFlight.execute("test", 1L, () -> "новое")).isEqualTo("новое");
+        assertThat(singleFlight.execute("test", 2L, () -> "другой ключ")).isEqualTo("другой ключ");
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("значение");
+    }
+
+    @Test
+    @DisplayName("Запрос, закрепленный за primary, не должен присоединяться к загрузке с реплики")
+    void execute_WhenPrimaryForced_ShouldNotJoinReplicaFlight() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(5));
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("test", 1L, this::blockingLoad));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ReplicaRoutingContext.forcePrimary();
+        try {
+            assertThat(singleFlight.execute("test", 1L, () -> "с primary")).isEqualTo("с primary");
+        } finally {
+            ReplicaRoutingContext.clear();
+        }
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("значение");
+        assertThat(followers()).isZero();
+    }
+
+    private SingleFlight singleFlight(Duration timeout) {
+        SingleFlight singleFlight = new SingleFlight(timeout);
+        singleFlight.bindTo(registry);
+        return singleFlight;
+    }
+
+    private List<Future<String>> startFlight(SingleFlight singleFlight, Supplier<String> value)
+            throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("test", 1L, () -> {
+            blockingLoad();
+            return value.get();
+        })));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < FOLLOWERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("test", 1L, this::blockingLoad)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (followers() < FOLLOWERS && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(followers()).isEqualTo(FOLLOWERS);
+        return results;
+    }
+
+    private double followers() {
+        return registry.get("demotech.singleflight.calls").tag("role", "follower").functionCounter().count();
+    }
+
+    private String blockingLoad() {
+        loads.incrementAndGet();
+        loading.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "значение";
+    }
+}
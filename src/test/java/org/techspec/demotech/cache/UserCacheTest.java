@@ -0,0 +1,84 @@
+package org.techspec.demotech.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.techspec.demotech.dto.UserDto;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UserCache Unit Tests")
+class UserCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(100, Duration.ofMinutes(5), Duration.ofSeconds(30), nanos::get);
+    }
+
+    @Test
+    @DisplayName("Отсутствие пользователя должно истекать раньше найденного пользователя")
+    void getUser_NegativeEntriesShouldExpireBeforePositive() {
+
+        UserDto user = UserDto.builder().id(1L).name("Тест").build();
+
+        userCache.getUser(1L, id -> load(Optional.of(user)));
+        userCache.getUser(2L, id -> load(Optional.empty()));
+        assertThat(loads).hasValue(2);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        userCache.getUser(1L, id -> load(Optional.of(user)));
+        userCache.getUser(2L, id -> load(Optional.empty()));
+        assertThat(loads).hasValue(3);
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        userCache.getUser(1L, id -> load(Optional.of(user)));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Сброс должен удалять и пользователя, и признак существования")
+    void evict_ShouldInvalidateBothCaches() {
+
+        assertThat(userCache.exists(1L, id -> load(false))).isFalse();
+        userCache.getUser(1L, id -> load(Optional.empty()));
+
+        userCache.evict(1L);
+
+        assertThat(userCache.exists(1L, id -> load(true))).isTrue();
+        assertThat(userCache.getUser(1L, id -> load(Optional.of(UserDto.builder().id(1L).build())))).isPresent();
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Должен публиковать метрики попаданий и промахов")
+    void bindTo_ShouldExposeHitAndMissCounters() {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userCache.bindTo(registry);
+
+        userCache.getUser(1L, id -> Optional.empty());
+        userCache.getUser(1L, id -> Optional.empty());
+
+        assertThat(registry.get("cache.gets").tag("cache", "users").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "users").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    private <T> T load(T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
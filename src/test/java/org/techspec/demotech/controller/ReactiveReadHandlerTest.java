@@ -0,0 +1,157 @@
+package org.techspec.demotech.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.function.EntityResponse;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.servlet.function.support.RouterFunctionMapping;
+import org.techspec.demotech.config.ReactiveReadConfig;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.exception.GlobalExceptionHandler;
+import org.techspec.demotech.repository.ReactiveReadRepository;
+import org.techspec.demotech.service.SubscriptionLeaderboard;
+import org.techspec.demotech.service.SubscriptionService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReactiveReadHandler Unit Tests")
+class ReactiveReadHandlerTest {
+
+    @Mock
+    private ReactiveReadRepository repository;
+
+    @Mock
+    private SubscriptionLeaderboard leaderboard;
+
+    private ReactiveReadHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new ReactiveReadHandler(repository, leaderboard, new GlobalExceptionHandler(), Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Должен вернуть пользователя с ETag")
+    void user_WhenExists_ShouldReturnUserWithETag() {
+        UserDto user = UserDto.builder().id(1L).name("Иван").email("ivan@example.com").version(3L).build();
+        when(repository.findUserById(1L)).thenReturn(Mono.just(user));
+
+        ServerResponse response = handler.user(1L, List.of()).block();
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.headers().getETag()).isEqualTo("\"v3\"");
+        assertThat(((EntityResponse<?>) response).entity()).isEqualTo(user);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 304, если ETag пользователя совпадает с If-None-Match")
+    void user_WhenETagMatches_ShouldReturnNotModified() {
+        when(repository.findUserById(1L)).thenReturn(Mono.just(UserDto.builder().id(1L).version(3L).build()));
+
+        ServerResponse response = handler.user(1L, List.of("\"v2\", W/\"v3\"")).block();
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть ошибку 404 в формате GlobalExceptionHandler, если пользователь не найден")
+    void user_WhenMissing_ShouldReturnErrorResponse() {
+        when(repository.findUserById(99L)).thenReturn(Mono.empty());
+
+        ServerResponse response = handler.user(99L, List.of()).onErrorResume(e -> Mono.just(handler.error(e))).block();
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        GlobalExceptionHandler.ErrorResponse error =
+                (GlobalExceptionHandler.ErrorResponse) ((EntityResponse<?>) response).entity();
+        assertThat(error.getMessage()).isEqualTo("Пользователь с ID 99 не найден");
+    }
+
+    @Test
+    @DisplayName("Не должен читать подписки, если ETag списка совпадает с If-None-Match")
+    void subscriptions_WhenETagMatches_ShouldSkipQuery() {
+        when(repository.findSubscriptionsVersionById(1L)).thenReturn(Mono.just(5L));
+
+        ServerResponse response = handler.subscriptions(1L, List.of("\"s5\"")).block();
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(repository, never()).findSubscriptionsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть подписки пользователя с ETag")
+    void subscriptions_WhenUserExists_ShouldReturnList() {
+        SubscriptionDto subscription = SubscriptionDto.builder()
+                .id(10L).serviceName("Netflix").price(new BigDecimal("299.00")).build();
+        when(repository.findSubscriptionsVersionById(1L)).thenReturn(Mono.just(5L));
+        when(repository.findSubscriptionsByUserId(1L)).thenReturn(Flux.just(subscription));
+
+        ServerResponse response = handler.subscriptions(1L, List.of()).block();
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.headers().getETag()).isEqualTo("\"s5\"");
+        assertThat(((EntityResponse<?>) response).entity()).isEqualTo(List.of(subscription));
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 503, если база данных недоступна")
+    void error_WhenDatabaseUnavailable_ShouldReturnServiceUnavailable() {
+
+        ServerResponse response = handler.error(new DataAccessResourceFailureException("connection refused"));
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @DisplayName("Должен ограничить размер топа допустимым диапазоном")
+    void top_ShouldClampLimit() {
+        List<TopSubscriptionDto> top = List.of(new TopSubscriptionDto("Netflix", 5L));
+        when(leaderboard.top(SubscriptionService.MAX_TOP_LIMIT)).thenReturn(top);
+
+        ServerResponse response = handler.top(10_000);
+
+        assertThat(((EntityResponse<?>) response).entity()).isEqualTo(top);
+    }
+
+    @Test
+    @DisplayName("Должен обслуживать горячие чтения без параметров, остальное оставлять MVC-контроллерам")
+    void reactiveReadMapping_ShouldRouteOnlyPlainHotReads() throws Exception {
+        RouterFunctionMapping mapping = new ReactiveReadConfig().reactiveReadMapping(handler, new HttpMessageConverters());
+
+        assertThat(mapping.getHandler(request("/users/1"))).isNotNull();
+        assertThat(mapping.getHandler(request("/users/1/subscriptions"))).isNotNull();
+        assertThat(mapping.getHandler(request("/subscriptions/top"))).isNotNull();
+
+        MockHttpServletRequest withInclude = request("/users/1");
+        withInclude.setParameter("include", "subscriptions");
+        MockHttpServletRequest withWindow = request("/subscriptions/top");
+        withWindow.setParameter("window", "24h");
+        assertThat(mapping.getHandler(withInclude)).isNull();
+        assertThat(mapping.getHandler(withWindow)).isNull();
+        assertThat(mapping.getHandler(request("/users/export"))).isNull();
+        assertThat(mapping.getHandler(request("/users/1/profile"))).isNull();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
@@ -7,23 +7,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.techspec.demotech.analytics.SubscriptionStatsSnapshot;
 import org.techspec.demotech.dto.CreateSubscriptionRequest;
+import org.techspec.demotech.dto.CreateSubscriptionsBatchRequest;
+import org.techspec.demotech.dto.ServiceStatsDto;
+import org.techspec.demotech.dto.SubscriptionBatchItem;
+import org.techspec.demotech.dto.SubscriptionBatchItemResultDto;
+import org.techspec.demotech.dto.SubscriptionBatchResultDto;
 import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.SubscriptionStatsDto;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.dto.UserSubscriptionsDto;
+import org.techspec.demotech.exception.ServiceBusyException;
 import org.techspec.demotech.exception.SubscriptionNotFoundException;
 import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.service.SubscriptionRollups;
 import org.techspec.demotech.service.SubscriptionService;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +51,9 @@ class SubscriptionControllerTest {
     @MockBean
     private SubscriptionService subscriptionService;
 
+    @MockBean
+    private SubscriptionStatsSnapshot statsSnapshot;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -105,6 +119,59 @@ class SubscriptionControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("POST /subscriptions/batch должен вернуть результат по каждому элементу")
+    void createSubscriptions_WhenValidRequest_ShouldReturn200() throws Exception {
+
+        CreateSubscriptionsBatchRequest batchRequest = new CreateSubscriptionsBatchRequest(List.of(
+                new SubscriptionBatchItem(1L, "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(999L, "Netflix", new BigDecimal("299.00"))));
+
+        SubscriptionBatchResultDto batchResult = SubscriptionBatchResultDto.builder()
+                .created(1)
+                .failed(1)
+                .results(List.of(
+                        SubscriptionBatchItemResultDto.builder()
+                                .index(0).userId(1L).serviceName("Netflix")
+                                .status(SubscriptionBatchItemResultDto.Status.CREATED)
+                                .subscription(testSubscriptionDto)
+                                .build(),
+                        SubscriptionBatchItemResultDto.builder()
+                                .index(1).userId(999L).serviceName("Netflix")
+                                .status(SubscriptionBatchItemResultDto.Status.USER_NOT_FOUND)
+                                .message("Пользователь с ID 999 не найден")
+                                .build()))
+                .build();
+        when(subscriptionService.createSubscriptions(anyList())).thenReturn(batchResult);
+
+        mockMvc.perform(post("/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].subscription.serviceName").value("Netflix"))
+                .andExpect(jsonPath("$.results[1].status").value("USER_NOT_FOUND"));
+
+        verify(subscriptionService).createSubscriptions(anyList());
+    }
+
+    @Test
+    @DisplayName("POST /subscriptions/batch должен вернуть 400 при невалидном элементе пакета")
+    void createSubscriptions_WhenInvalidItem_ShouldReturn400() throws Exception {
+
+        CreateSubscriptionsBatchRequest batchRequest = new CreateSubscriptionsBatchRequest(List.of(
+                new SubscriptionBatchItem(null, "Netflix", new BigDecimal("299.00"))));
+
+        mockMvc.perform(post("/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(subscriptionService, never()).createSubscriptions(anyList());
+    }
+
     @Test
     @DisplayName("GET /users/{userId}/subscriptions должен вернуть подписки пользователя")
     void getUserSubscriptions_WhenUserExists_ShouldReturn200() throws Exception {
@@ -121,6 +188,7 @@ class SubscriptionControllerTest {
 
         mockMvc.perform(get("/users/{userId}/subscriptions", userId))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"s0\""))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].serviceName").value("Netflix"))
                 .andExpect(jsonPath("$[1].serviceName").value("Spotify"));
@@ -128,6 +196,33 @@ class SubscriptionControllerTest {
         verify(subscriptionService).getUserSubscriptions(userId);
     }
 
+    @Test
+    @DisplayName("GET /users/{userId}/subscriptions должен вернуть 304 по совпавшему If-None-Match")
+    void getUserSubscriptions_WhenETagMatches_ShouldReturn304() throws Exception {
+
+        Long userId = 1L;
+        when(subscriptionService.getSubscriptionsVersion(userId)).thenReturn(5L);
+
+        mockMvc.perform(get("/users/{userId}/subscriptions", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"s5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"s5\""));
+
+        verify(subscriptionService, never()).getUserSubscriptions(any());
+    }
+
+    @Test
+    @DisplayName("GET /users/{userId}/subscriptions должен вернуть 404 когда пользователь не найден")
+    void getUserSubscriptions_WhenUserNotFound_ShouldReturn404() throws Exception {
+
+        Long userId = 999L;
+        when(subscriptionService.getSubscriptionsVersion(userId))
+                .thenThrow(new UserNotFoundException("Пользователь с ID " + userId + " не найден"));
+
+        mockMvc.perform(get("/users/{userId}/subscriptions", userId))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("DELETE /users/{userId}/subscriptions/{subscriptionId} должен удалить подписку")
     void deleteSubscription_WhenSubscriptionExists_ShouldReturn204() throws Exception {
@@ -156,19 +251,29 @@ class SubscriptionControllerTest {
     }
 
     @Test
-    @DisplayName("GET /subscriptions/top должен вернуть топ-3 подписок")
-    void getTopSubscriptions_ShouldReturn200() throws Exception {
+    @DisplayName("GET /subscriptions?userIds= должен вернуть подписки по списку пользователей")
+    void getSubscriptionsByUserIds_ShouldReturn200() throws Exception {
 
-        Map<String, Object> top1 = new HashMap<>();
-        top1.put("serviceName", "Netflix");
-        top1.put("subscribersCount", 100L);
+        when(subscriptionService.getSubscriptionsByUserIds(List.of(1L, 99L))).thenReturn(List.of(
+                UserSubscriptionsDto.builder().userId(1L).found(true).subscriptions(List.of(testSubscriptionDto)).build(),
+                UserSubscriptionsDto.builder().userId(99L).found(false).build()));
 
-        Map<String, Object> top2 = new HashMap<>();
-        top2.put("serviceName", "Spotify");
-        top2.put("subscribersCount", 80L);
+        mockMvc.perform(get("/subscriptions").param("userIds", "1,99"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].subscriptions[0].serviceName").value("Netflix"))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].subscriptions").doesNotExist());
+    }
 
-        List<Map<String, Object>> topSubscriptions = Arrays.asList(top1, top2);
-        when(subscriptionService.getTopSubscriptions()).thenReturn(topSubscriptions);
+    @Test
+    @DisplayName("GET /subscriptions/top должен вернуть топ-3 подписок")
+    void getTopSubscriptions_ShouldReturn200() throws Exception {
+
+        List<TopSubscriptionDto> topSubscriptions = Arrays.asList(
+                new TopSubscriptionDto("Netflix", 100L),
+                new TopSubscriptionDto("Spotify", 80L));
+        when(subscriptionService.getTopSubscriptions(SubscriptionService.DEFAULT_TOP_LIMIT))
+                .thenReturn(topSubscriptions);
 
         mockMvc.perform(get("/subscriptions/top"))
                 .andExpect(status().isOk())
@@ -177,6 +282,104 @@ class SubscriptionControllerTest {
                 .andExpect(jsonPath("$[0].subscribersCount").value(100))
                 .andExpect(jsonPath("$[1].serviceName").value("Spotify"));
 
-        verify(subscriptionService).getTopSubscriptions();
+        verify(subscriptionService).getTopSubscriptions(SubscriptionService.DEFAULT_TOP_LIMIT);
+    }
+
+    @Test
+    @DisplayName("GET /subscriptions/top?limit=N должен вернуть топ-N подписок")
+    void getTopSubscriptions_WithLimit_ShouldReturn200() throws Exception {
+
+        when(subscriptionService.getTopSubscriptions(10)).thenReturn(List.of(new TopSubscriptionDto("Netflix", 100L)));
+
+        mockMvc.perform(get("/subscriptions/top").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(subscriptionService).getTopSubscriptions(10);
+    }
+
+    @Test
+    @DisplayName("GET /subscriptions/top?window=24h должен вернуть топ за последние сутки")
+    void getTopSubscriptions_WithWindow_ShouldReturn200() throws Exception {
+
+        when(subscriptionService.getTopSubscriptions(SubscriptionRollups.Window.DAY, 5))
+                .thenReturn(List.of(new TopSubscriptionDto("Spotify", 12L)));
+
+        mockMvc.perform(get("/subscriptions/top").param("window", "24h").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serviceName").value("Spotify"))
+                .andExpect(jsonPath("$[0].subscribersCount").value(12));
+
+        verify(subscriptionService, never()).getTopSubscriptions(anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /subscriptions/top с неизвестным окном должен вернуть 400")
+    void getTopSubscriptions_WithUnknownWindow_ShouldReturn400() throws Exception {
+
+        mockMvc.perform(get("/subscriptions/top").param("window", "1y"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /subscriptions/stats должен вернуть статистику цен за период")
+    void getSubscriptionStats_WithPeriod_ShouldReturn200() throws Exception {
+
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 4, 1, 0, 0);
+        ServiceStatsDto netflix = ServiceStatsDto.builder()
+                .serviceName("Netflix")
+                .subscribers(2)
+                .revenue(new BigDecimal("698.00"))
+                .averagePrice(new BigDecimal("349.00"))
+                .minPrice(new BigDecimal("299.00"))
+                .p50Price(new BigDecimal("299.00"))
+                .p90Price(new BigDecimal("399.00"))
+                .p99Price(new BigDecimal("399.00"))
+                .maxPrice(new BigDecimal("399.00"))
+                .build();
+        when(statsSnapshot.stats(from, to)).thenReturn(SubscriptionStatsDto.builder()
+                .from(from)
+                .to(to)
+                .snapshotRows(5)
+                .subscribers(2)
+                .revenue(new BigDecimal("698.00"))
+                .services(List.of(netflix))
+                .build());
+
+        mockMvc.perform(get("/subscriptions/stats")
+                        .param("from", "2024-03-01T00:00:00")
+                        .param("to", "2024-04-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subscribers").value(2))
+                .andExpect(jsonPath("$.services[0].serviceName").value("Netflix"))
+                .andExpect(jsonPath("$.services[0].p90Price").value(399.00));
+    }
+
+    @Test
+    @DisplayName("GET /subscriptions/stats с пустым периодом должен вернуть 400")
+    void getSubscriptionStats_WithEmptyPeriod_ShouldReturn400() throws Exception {
+
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 0, 0);
+        when(statsSnapshot.stats(at, at))
+                .thenThrow(new IllegalArgumentException("Начало периода должно быть раньше его конца"));
+
+        mockMvc.perform(get("/subscriptions/stats")
+                        .param("from", "2024-03-01T00:00:00")
+                        .param("to", "2024-03-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /subscriptions/stats до построения снимка должен вернуть 503 без сигнала перегрузки")
+    void getSubscriptionStats_WhenSnapshotNotBuilt_ShouldReturn503AndMarkRequest() throws Exception {
+
+        when(statsSnapshot.stats(null, null))
+                .thenThrow(new ServiceBusyException("Снимок аналитики подписок еще не построен"));
+
+        mockMvc.perform(get("/subscriptions/stats"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Service Unavailable"))
+                .andExpect(request().attribute(ServiceBusyException.REQUEST_ATTRIBUTE, true));
     }
 }
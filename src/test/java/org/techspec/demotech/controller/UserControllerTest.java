@@ -7,20 +7,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.techspec.demotech.dto.CreateUserRequest;
+import org.techspec.demotech.dto.CreateUsersBatchRequest;
+import org.techspec.demotech.dto.SubscriptionDto;
 import org.techspec.demotech.dto.UpdateUserRequest;
 import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.dto.UserLookupDto;
+import org.techspec.demotech.dto.UserPageDto;
+import org.techspec.demotech.dto.UserProfileDto;
 import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.metrics.SqlBudgetExceededException;
+import org.techspec.demotech.service.UserExportService;
 import org.techspec.demotech.service.UserService;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,6 +50,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExportService userExportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -51,6 +67,7 @@ class UserControllerTest {
                 .email("test@example.com")
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
+                .version(3L)
                 .build();
 
         createUserRequest = new CreateUserRequest("Тест Пользователь", "test@example.com");
@@ -73,6 +90,21 @@ class UserControllerTest {
         verify(userService).createUser(any(CreateUserRequest.class));
     }
 
+    @Test
+    @DisplayName("POST /users должен вернуть 400 при занятом email")
+    void createUser_WhenEmailTaken_ShouldReturn400() throws Exception {
+
+        when(userService.createUser(any(CreateUserRequest.class)))
+                .thenThrow(new IllegalArgumentException("Пользователь с таким email уже существует"));
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createUserRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Пользователь с таким email уже существует"));
+    }
+
     @Test
     @DisplayName("POST /users должен вернуть 400 при невалидных данных")
     void createUser_WhenInvalidRequest_ShouldReturn400() throws Exception {
@@ -87,6 +119,39 @@ class UserControllerTest {
         verify(userService, never()).createUser(any(CreateUserRequest.class));
     }
 
+    @Test
+    @DisplayName("POST /users/batch должен создать пользователей пакетом")
+    void createUsers_WhenValidRequest_ShouldReturn201() throws Exception {
+
+        CreateUsersBatchRequest batchRequest = new CreateUsersBatchRequest(List.of(createUserRequest));
+        when(userService.createUsers(anyList())).thenReturn(List.of(testUserDto));
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].email").value("test@example.com"));
+
+        verify(userService).createUsers(anyList());
+    }
+
+    @Test
+    @DisplayName("POST /users/batch должен вернуть 400 при невалидном элементе пакета")
+    void createUsers_WhenInvalidItem_ShouldReturn400() throws Exception {
+
+        CreateUsersBatchRequest batchRequest = new CreateUsersBatchRequest(
+                List.of(createUserRequest, new CreateUserRequest("", "invalid-email")));
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors['users[1].email']").exists());
+
+        verify(userService, never()).createUsers(anyList());
+    }
+
     @Test
     @DisplayName("GET /users/{id} должен вернуть пользователя")
     void getUserById_WhenUserExists_ShouldReturn200() throws Exception {
@@ -102,6 +167,72 @@ class UserControllerTest {
         verify(userService).getUserById(userId);
     }
 
+    @Test
+    @DisplayName("GET /users/{id} должен вернуть ETag с версией пользователя")
+    void getUserById_ShouldReturnETag() throws Exception {
+
+        when(userService.getUserById(1L)).thenReturn(testUserDto);
+
+        mockMvc.perform(get("/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} должен вернуть 304 по совпавшему If-None-Match без загрузки пользователя")
+    void getUserById_WhenETagMatches_ShouldReturn304() throws Exception {
+
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/users/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""))
+                .andExpect(content().string(""));
+
+        verify(userService).getUserVersion(1L);
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} должен вернуть 200 по устаревшему If-None-Match")
+    void getUserById_WhenETagIsStale_ShouldReturn200() throws Exception {
+
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+        when(userService.getUserById(1L)).thenReturn(testUserDto);
+
+        mockMvc.perform(get("/users/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"v2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""))
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} должен вернуть 503 когда не удалось получить соединение с БД")
+    void getUserById_WhenDatabaseSaturated_ShouldReturn503() throws Exception {
+
+        when(userService.getUserById(1L))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        mockMvc.perform(get("/users/{id}", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} должен вернуть 422 с эндпоинтом и лимитом при превышении бюджета SQL")
+    void getUserById_WhenSqlBudgetExceeded_ShouldReturn422() throws Exception {
+
+        when(userService.getUserById(1L))
+                .thenThrow(new SqlBudgetExceededException(4, 3, "select * from subscriptions"));
+
+        mockMvc.perform(get("/users/{id}", 1L))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("SQL Budget Exceeded"))
+                .andExpect(jsonPath("$.message").value(
+                        "Запрос GET /users/{id} превысил лимит SQL-запросов: выполнено 4 при лимите 3"));
+    }
+
     @Test
     @DisplayName("GET /users/{id} должен вернуть 404 когда пользователь не найден")
     void getUserById_WhenUserNotExists_ShouldReturn404() throws Exception {
@@ -117,8 +248,40 @@ class UserControllerTest {
     }
 
     @Test
-    @DisplayName("GET /users должен вернуть всех пользователей")
-    void getAllUsers_ShouldReturn200() throws Exception {
+    @DisplayName("GET /users/{id}/profile должен вернуть профиль с подписками и ETag ревизии")
+    void getUserProfile_ShouldReturnProfileWithETag() throws Exception {
+
+        when(userService.getUserProfile(1L)).thenReturn(UserProfileDto.builder()
+                .id(1L)
+                .name("Тест Пользователь")
+                .subscriptions(List.of(SubscriptionDto.builder().id(10L).serviceName("Netflix").build()))
+                .revision(7L)
+                .build());
+
+        mockMvc.perform(get("/users/{id}/profile", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p7\""))
+                .andExpect(jsonPath("$.subscriptions[0].serviceName").value("Netflix"))
+                .andExpect(jsonPath("$.revision").doesNotExist());
+
+        mockMvc.perform(get("/users/{id}/profile", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"p7\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}/profile должен вернуть 404 когда пользователь не найден")
+    void getUserProfile_WhenUserNotExists_ShouldReturn404() throws Exception {
+
+        when(userService.getUserProfile(1L))
+                .thenThrow(new UserNotFoundException("Пользователь с ID 1 не найден"));
+
+        mockMvc.perform(get("/users/{id}/profile", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /users должен вернуть страницу пользователей")
+    void getUsers_ShouldReturn200() throws Exception {
 
         UserDto user2 = UserDto.builder()
                 .id(2L)
@@ -126,16 +289,108 @@ class UserControllerTest {
                 .email("second@example.com")
                 .build();
 
-        List<UserDto> users = Arrays.asList(testUserDto, user2);
-        when(userService.getAllUsers()).thenReturn(users);
+        UserPageDto page = UserPageDto.builder()
+                .items(Arrays.asList(testUserDto, user2))
+                .nextCursor(2L)
+                .approximateTotal(10L)
+                .build();
+        when(userService.getUsers(1L, 2)).thenReturn(page);
+
+        mockMvc.perform(get("/users").param("after", "1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Тест Пользователь"))
+                .andExpect(jsonPath("$.items[1].name").value("Второй Пользователь"))
+                .andExpect(jsonPath("$.nextCursor").value(2))
+                .andExpect(jsonPath("$.approximateTotal").value(10));
+
+        verify(userService).getUsers(1L, 2);
+    }
+
+    @Test
+    @DisplayName("GET /users?ids= должен вернуть пользователей по списку ID")
+    void getUsersByIds_ShouldReturn200() throws Exception {
+
+        when(userService.getUsersByIds(List.of(1L, 99L))).thenReturn(List.of(
+                UserLookupDto.builder().id(1L).found(true).user(testUserDto).build(),
+                UserLookupDto.builder().id(99L).found(false).build()));
+
+        mockMvc.perform(get("/users").param("ids", "1,99"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].user.name").value("Тест Пользователь"))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].user").doesNotExist());
+
+        verify(userService, never()).getUsers(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /users?include=subscriptions должен встроить подписки в страницу")
+    void getUsers_WithIncludeSubscriptions_ShouldEmbedSubscriptions() throws Exception {
+
+        testUserDto.setSubscriptions(List.of(SubscriptionDto.builder().id(10L).serviceName("Netflix").build()));
+        when(userService.getUsers(null, UserService.DEFAULT_PAGE_SIZE, true))
+                .thenReturn(UserPageDto.builder().items(List.of(testUserDto)).build());
+
+        mockMvc.perform(get("/users").param("include", "subscriptions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].subscriptions[0].serviceName").value("Netflix"));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}?include=subscriptions должен вернуть пользователя с подписками и составным ETag")
+    void getUserById_WithIncludeSubscriptions_ShouldEmbedSubscriptions() throws Exception {
+
+        testUserDto.setSubscriptionsVersion(5L);
+        testUserDto.setSubscriptions(List.of(SubscriptionDto.builder().id(10L).serviceName("Netflix").build()));
+        when(userService.getUserWithSubscriptions(1L)).thenReturn(testUserDto);
+
+        mockMvc.perform(get("/users/{id}", 1L).param("include", "subscriptions"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3-s5\""))
+                .andExpect(jsonPath("$.subscriptions[0].serviceName").value("Netflix"));
+
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} должен вернуть 400 для неизвестного значения include")
+    void getUserById_WithUnknownInclude_ShouldReturn400() throws Exception {
+
+        mockMvc.perform(get("/users/{id}", 1L).param("include", "payments"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /users без параметров должен использовать размер страницы по умолчанию")
+    void getUsers_WithoutParams_ShouldUseDefaultLimit() throws Exception {
+
+        when(userService.getUsers(null, UserService.DEFAULT_PAGE_SIZE))
+                .thenReturn(UserPageDto.builder().items(List.of()).build());
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].name").value("Тест Пользователь"))
-                .andExpect(jsonPath("$[1].name").value("Второй Пользователь"));
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        verify(userService).getUsers(null, UserService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    @DisplayName("GET /users/export должен вернуть пользователей в формате NDJSON")
+    void exportUsers_ShouldStreamNdjson() throws Exception {
+
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(userExportService).exportUsers(any(OutputStream.class));
+
+        mockMvc.perform(get("/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
 
-        verify(userService).getAllUsers();
+        verify(userExportService).exportUsers(any(OutputStream.class));
     }
 
     @Test
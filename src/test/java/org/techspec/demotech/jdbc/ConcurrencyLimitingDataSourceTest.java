@@ -0,0 +1,71 @@
+package org.techspec.demotech.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ConcurrencyLimitingDataSource Unit Tests")
+class ConcurrencyLimitingDataSourceTest {
+
+    private DataSource target;
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new ConcurrencyLimitingDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Должен отказать по таймауту, когда все разрешения заняты")
+    void getConnection_WhenLimitReached_ShouldTimeOut() throws SQLException {
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThat(dataSource.getActiveConnections()).isEqualTo(2);
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class);
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Должен освобождать разрешение при закрытии соединения ровно один раз")
+    void close_ShouldReleasePermitOnce() throws SQLException {
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        first.close();
+        first.close();
+
+        assertThat(dataSource.getActiveConnections()).isEqualTo(1);
+        dataSource.getConnection();
+        assertThat(dataSource.getActiveConnections()).isEqualTo(2);
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть разрешение, если пул не выдал соединение")
+    void getConnection_WhenTargetFails_ShouldReleasePermit() throws SQLException {
+
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLException.class);
+        assertThat(dataSource.getActiveConnections()).isZero();
+    }
+}
@@ -0,0 +1,57 @@
+package org.techspec.demotech.jdbc;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ReadYourWritesFilter Unit Tests")
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.ofEpochMilli(1_000_000L);
+
+    private final ReadYourWritesFilter filter =
+            new ReadYourWritesFilter(Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("Должен выставить cookie окна после записи и выполнить запрос на primary")
+    void doFilter_OnWrite_ShouldSetCookieAndForcePrimary() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean primaryForced = new AtomicBoolean();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/users"), response,
+                (request, ignored) -> primaryForced.set(ReplicaRoutingContext.isPrimaryForced()));
+
+        assertThat(primaryForced).isTrue();
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME).getValue()).isEqualTo("1005000");
+        assertThat(ReplicaRoutingContext.isPrimaryForced()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Должен читать с primary только пока окно не истекло")
+    void doFilter_OnRead_ShouldRespectWindow() throws Exception {
+        assertThat(primaryForcedFor("1000001")).isTrue();
+        assertThat(primaryForcedFor("1000000")).isFalse();
+        assertThat(primaryForcedFor(null)).isFalse();
+    }
+
+    private boolean primaryForcedFor(String cookie) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1");
+        if (cookie != null) {
+            request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, cookie));
+        }
+        AtomicBoolean primaryForced = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (ignored, response) -> primaryForced.set(ReplicaRoutingContext.isPrimaryForced()));
+        return primaryForced.get();
+    }
+}
@@ -0,0 +1,90 @@
+package org.techspec.demotech.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("ReplicaLagMonitor Unit Tests")
+class ReplicaLagMonitorTest {
+
+    @Test
+    @DisplayName("Должен проверять отставание в собственном потоке, не занимая общий планировщик")
+    void monitor_ShouldRefreshLagOnDedicatedThread() throws Exception {
+        ReplicaRoutingDataSource routing = mock(ReplicaRoutingDataSource.class);
+        CountDownLatch checks = new CountDownLatch(3);
+        AtomicReference<String> thread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            checks.countDown();
+            return null;
+        }).when(routing).refreshLag();
+
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, Duration.ofMillis(10));
+        try {
+            assertThat(checks.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(thread.get()).isEqualTo(ReplicaLagMonitor.THREAD_NAME);
+        } finally {
+            monitor.close();
+        }
+        verify(routing).close();
+    }
+
+    @Test
+    @DisplayName("Должен продолжать проверки после ошибки измерения")
+    void monitor_WhenCheckFails_ShouldKeepChecking() throws Exception {
+        ReplicaRoutingDataSource routing = mock(ReplicaRoutingDataSource.class);
+        CountDownLatch recovered = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("pool is closed");
+        }).doAnswer(invocation -> {
+            recovered.countDown();
+            return null;
+        }).when(routing).refreshLag();
+
+        try (ReplicaLagMonitor ignored = new ReplicaLagMonitor(routing, Duration.ofMillis(10))) {
+            assertThat(recovered.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Должен публиковать отставание и доступность каждой реплики")
+    void bindTo_ShouldExposeLagAndHealthPerReplica() throws Exception {
+        JdbcDataSource replica = new JdbcDataSource();
+        replica.setURL("jdbc:h2:mem:monitor_replica;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS node (lag_millis BIGINT);"
+                + "DELETE FROM node; INSERT INTO node VALUES (250)");
+        JdbcDataSource missing = new JdbcDataSource();
+        missing.setURL("jdbc:h2:mem:monitor_replica_without_lag");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replica, List.of(replica, missing),
+                Duration.ofSeconds(2), "SELECT lag_millis FROM node");
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try (ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, Duration.ofHours(1))) {
+            monitor.bindTo(meterRegistry);
+            monitor.check();
+
+            assertThat(gauge(meterRegistry, "demotech.replica.lag", "0")).isEqualTo(250);
+            assertThat(gauge(meterRegistry, "demotech.replica.healthy", "0")).isEqualTo(1);
+            assertThat(gauge(meterRegistry, "demotech.replica.lag", "1")).isNaN();
+            assertThat(gauge(meterRegistry, "demotech.replica.healthy", "1")).isZero();
+        }
+    }
+
+    private double gauge(MeterRegistry meterRegistry, String name, String replica) {
+        return meterRegistry.get(name).tag("replica", replica).gauge().value();
+    }
+}
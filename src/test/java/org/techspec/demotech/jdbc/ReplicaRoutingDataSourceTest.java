@@ -0,0 +1,131 @@
+package org.techspec.demotech.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ReplicaRoutingDataSource Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing_primary", "primary");
+        DataSource replica = database("routing_replica", "replica");
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(2),
+                "SELECT lag_millis FROM node");
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    @DisplayName("Должен читать с primary, пока отставание реплики ни разу не измерено")
+    void getConnection_BeforeFirstLagCheck_ShouldUsePrimary() {
+
+        assertThat(routing.isHealthy(0)).isFalse();
+        assertThat(node(readOnlyTransaction)).isEqualTo("primary");
+
+        routing.refreshLag();
+
+        assertThat(routing.isHealthy(0)).isTrue();
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Должен направлять readOnly-транзакции на реплику, а остальные на primary")
+    void getConnection_ShouldRouteByTransactionReadOnlyFlag() {
+
+        routing.refreshLag();
+
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+        assertThat(node(writeTransaction)).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Должен читать с primary, пока действует окно read-your-writes")
+    void getConnection_WhenPrimaryForced_ShouldUsePrimary() {
+
+        ReplicaRoutingContext.forcePrimary();
+
+        assertThat(node(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Должен выполнять действие на primary и восстанавливать маршрутизацию после него")
+    void onPrimary_ShouldRouteActionToPrimaryOnly() {
+
+        routing.refreshLag();
+
+        assertThat(ReplicaRoutingContext.onPrimary(() -> node(readOnlyTransaction))).isEqualTo("primary");
+        assertThat(ReplicaRoutingContext.isPrimaryForced()).isFalse();
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+
+        ReplicaRoutingContext.forcePrimary();
+        ReplicaRoutingContext.onPrimary(() -> node(readOnlyTransaction));
+
+        assertThat(ReplicaRoutingContext.isPrimaryForced()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Должен переключиться на primary при отставании реплики и вернуться после догона")
+    void refreshLag_WhenReplicaLags_ShouldFallBackToPrimary() {
+        JdbcTemplate replica = new JdbcTemplate(database("routing_replica", "replica"));
+
+        replica.update("UPDATE node SET lag_millis = 5000");
+        routing.refreshLag();
+
+        assertThat(routing.isHealthy(0)).isFalse();
+        assertThat(node(readOnlyTransaction)).isEqualTo("primary");
+
+        replica.update("UPDATE node SET lag_millis = 100");
+        routing.refreshLag();
+
+        assertThat(routing.getLagMillis(0)).isEqualTo(100);
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    private String node(TransactionTemplate transaction) {
+        return transaction.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name, String node) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20), lag_millis BIGINT)");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name, lag_millis) VALUES (?, 0)", node);
+        return dataSource;
+    }
+}
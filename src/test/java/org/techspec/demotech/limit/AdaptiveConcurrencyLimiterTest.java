@@ -0,0 +1,88 @@
+package org.techspec.demotech.limit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AdaptiveConcurrencyLimiter Unit Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    @DisplayName("Должен отказывать сверх текущего лимита")
+    void tryAcquire_WhenLimitReached_ShouldReject() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 1.5);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.onIgnore();
+
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Должен поднимать лимит при стабильной задержке и полной загрузке")
+    void onSuccess_WhenLatencyStable_ShouldGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, 1.5);
+
+        IntStream.range(0, 50).forEach(i -> saturateAndComplete(limiter, 10 * MILLIS));
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    @DisplayName("Должен снижать лимит при росте задержки")
+    void onSuccess_WhenLatencyGrows_ShouldShrinkLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 1, 100, 1.5);
+        IntStream.range(0, 20).forEach(i -> saturateAndComplete(limiter, 10 * MILLIS));
+        int before = limiter.getLimit();
+
+        IntStream.range(0, 3).forEach(i -> saturateAndComplete(limiter, 200 * MILLIS));
+
+        assertThat(limiter.getLimit()).isLessThan(before / 2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Должен мультипликативно снижать лимит при перегрузке")
+    void onDropped_ShouldBackOff() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 1, 100, 1.5);
+
+        IntStream.range(0, 10).forEach(i -> {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        });
+
+        assertThat(limiter.getLimit()).isLessThan(45);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Не должен поднимать лимит, пока он недогружен")
+    void onSuccess_WhenUnderused_ShouldKeepLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 1, 100, 1.5);
+
+        IntStream.range(0, 50).forEach(i -> {
+            limiter.tryAcquire();
+            limiter.onSuccess(10 * MILLIS);
+        });
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    private static void saturateAndComplete(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.techspec.demotech.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.techspec.demotech.config.ConcurrencyLimitConfig;
+import org.techspec.demotech.exception.ServiceBusyException;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConcurrencyLimitFilter Unit Tests")
+class ConcurrencyLimitFilterTest {
+
+    private AdaptiveConcurrencyLimiter userReads;
+    private AdaptiveConcurrencyLimiter writes;
+    private AdaptiveConcurrencyLimiter top;
+    private AdaptiveConcurrencyLimiter bulk;
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userReads = new AdaptiveConcurrencyLimiter("user-reads", 2, 1, 10, 1.5);
+        writes = new AdaptiveConcurrencyLimiter("writes", 2, 1, 10, 1.5);
+        top = new AdaptiveConcurrencyLimiter("top", 2, 1, 10, 1.5);
+        bulk = new AdaptiveConcurrencyLimiter("bulk", 2, 1, 10, 1.5);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ConcurrencyLimitFilter(Map.of(
+                ConcurrencyLimitFilter.Group.USER_READS, userReads,
+                ConcurrencyLimitFilter.Group.WRITES, writes,
+                ConcurrencyLimitFilter.Group.TOP, top,
+                ConcurrencyLimitFilter.Group.BULK, bulk),
+                0.5, Duration.ofSeconds(2), new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Должен сразу отвечать 503 с Retry-After, когда лимит группы исчерпан")
+    void doFilter_WhenLimitReached_ShouldRejectWithRetryAfter() throws Exception {
+        writes.tryAcquire();
+        writes.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/users"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentAsString()).contains("Service Unavailable");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.get("demotech.concurrency.rejected").tag("group", "writes").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Должен отбрасывать GET /subscriptions/top первым, пока загружены чтения пользователей")
+    void doFilter_WhenUserReadsBusy_ShouldShedTopFirst() throws Exception {
+        userReads.tryAcquire();
+
+        MockHttpServletResponse topResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/subscriptions/top"), topResponse, new MockFilterChain());
+        MockHttpServletResponse userResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), userResponse, new MockFilterChain());
+
+        assertThat(topResponse.getStatus()).isEqualTo(503);
+        assertThat(userResponse.getStatus()).isEqualTo(200);
+        assertThat(userReads.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Должен освобождать разрешение после ответа и не ограничивать служебные эндпоинты")
+    void doFilter_ShouldReleasePermitAndSkipUnlimitedPaths() throws Exception {
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/users"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertThat(userReads.getInFlight()).isZero();
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("GET", "/actuator/health"))).isNull();
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("DELETE", "/users/1/subscriptions/2")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.WRITES);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("GET", "/users/1/subscriptions")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.USER_READS);
+    }
+
+    @Test
+    @DisplayName("Должен выносить выгрузку, пакетные запросы и мульти-чтения в отдельную группу")
+    void group_ShouldSeparateBulkEndpoints() {
+        MockHttpServletRequest lookup = new MockHttpServletRequest("GET", "/users");
+        lookup.setParameter("ids", "1,2");
+
+        assertThat(ConcurrencyLimitFilter.group(lookup)).isEqualTo(ConcurrencyLimitFilter.Group.BULK);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("GET", "/users/export")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.BULK);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("GET", "/subscriptions")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.BULK);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("GET", "/subscriptions/stats")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.BULK);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("POST", "/users/batch")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.BULK);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("POST", "/subscriptions/batch")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.BULK);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("GET", "/users")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.USER_READS);
+        assertThat(ConcurrencyLimitFilter.group(new MockHttpServletRequest("POST", "/users")))
+                .isEqualTo(ConcurrencyLimitFilter.Group.WRITES);
+    }
+
+    @Test
+    @DisplayName("Не должен снижать лимит из-за собственных быстрых отказов сервиса, только из-за перегрузки")
+    void doFilter_WhenServiceBusy_ShouldNotShrinkLimit() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter configured = new ConcurrencyLimitConfig().concurrencyLimitFilter(
+                new MockEnvironment().withProperty("app.concurrency-limit.groups.bulk.initial-limit", "2"),
+                new ObjectMapper(), registry, 1.5, 0.8, Duration.ofSeconds(1)).getFilter();
+        FilterChain busy = (request, response) -> {
+            request.setAttribute(ServiceBusyException.REQUEST_ATTRIBUTE, Boolean.TRUE);
+            ((HttpServletResponse) response).setStatus(503);
+        };
+        FilterChain overloaded = (request, response) -> ((HttpServletResponse) response).setStatus(503);
+
+        for (int i = 0; i < 100; i++) {
+            configured.doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(), busy);
+            configured.doFilter(new MockHttpServletRequest("GET", "/subscriptions/stats"),
+                    new MockHttpServletResponse(), busy);
+        }
+
+        assertThat(limit(registry, "user-reads")).isEqualTo(50);
+        assertThat(limit(registry, "bulk")).isEqualTo(2);
+        assertThat(registry.get("demotech.concurrency.inflight").tag("group", "user-reads").gauge().value()).isZero();
+
+        configured.doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(), overloaded);
+
+        assertThat(limit(registry, "user-reads")).isLessThan(50);
+    }
+
+    private double limit(SimpleMeterRegistry registry, String group) {
+        return registry.get("demotech.concurrency.limit").tag("group", group).gauge().value();
+    }
+}
@@ -0,0 +1,71 @@
+package org.techspec.demotech.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SamplingLogFilter Unit Tests")
+class SamplingLogFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SamplingLogFilter filter = new SamplingLogFilter(clock::get);
+
+    @Test
+    @DisplayName("Должен пропускать каждое N-е событие при выборке")
+    void decide_WithSampleRate_ShouldKeepEveryNthEvent() {
+        filter.setSampleRate(10);
+
+        long accepted = IntStream.range(0, 100)
+                .mapToObj(i -> filter.decide(event("org.techspec.demotech.service.UserService", Level.INFO)))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        assertThat(accepted).isEqualTo(10);
+        assertThat(filter.getDropped()).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Должен ограничивать число событий в секунду и сбрасывать лимит в новом окне")
+    void decide_WithMaxPerSecond_ShouldLimitEachWindow() {
+        filter.setMaxPerSecond(2);
+
+        assertThat(filter.decide(event("org.hibernate.SQL", Level.DEBUG))).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(filter.decide(event("org.hibernate.SQL", Level.DEBUG))).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(filter.decide(event("org.hibernate.SQL", Level.DEBUG))).isEqualTo(FilterReply.DENY);
+
+        clock.addAndGet(1_000_000_000L);
+
+        assertThat(filter.decide(event("org.hibernate.SQL", Level.DEBUG))).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Не должен отбрасывать предупреждения, ошибки и события других логгеров")
+    void decide_ShouldAlwaysKeepWarningsAndUnmatchedLoggers() {
+        filter.setSampleRate(1000);
+        filter.setMaxPerSecond(1);
+        filter.setLoggers("org.techspec.demotech.controller, org.techspec.demotech.service");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(filter.decide(event("org.techspec.demotech.service.UserService", Level.WARN)))
+                    .isEqualTo(FilterReply.NEUTRAL);
+            assertThat(filter.decide(event("org.springframework.boot.StartupInfoLogger", Level.INFO)))
+                    .isEqualTo(FilterReply.NEUTRAL);
+        }
+        assertThat(filter.getDropped()).isZero();
+    }
+
+    private static LoggingEvent event(String loggerName, Level level) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(loggerName);
+        event.setLevel(level);
+        event.setMessage("сообщение");
+        return event;
+    }
+}
@@ -0,0 +1,119 @@
+package org.techspec.demotech.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import org.techspec.demotech.config.SqlBudgetProperties;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RequestQueryMetricsInterceptor Unit Tests")
+class RequestQueryMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlBudgetProperties sqlBudget = new SqlBudgetProperties();
+    private final RequestQueryMetricsInterceptor interceptor = new RequestQueryMetricsInterceptor(meterRegistry, sqlBudget);
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("GET", "/users/42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users/{id}");
+        response = new MockHttpServletResponse();
+        sqlBudget.setEndpoints(Map.of("GET /users/{id}", 2L));
+        sqlBudget.setRepeatThreshold(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    @Test
+    @DisplayName("Должен записать число SQL-запросов и загрузок сущностей с тегом шаблона URI")
+    void afterCompletion_ShouldRecordCountsByUriPattern() {
+
+        interceptor.preHandle(request, response, new Object());
+        QueryCounter.statementPrepared("select u1_0.id from users u1_0 where u1_0.id=?");
+        QueryCounter.statementPrepared("update users set subscriptions_version=subscriptions_version+1 where id=?");
+        QueryCounter.entityLoaded();
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        DistributionSummary statements = meterRegistry.get("demotech.request.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/users/{id}")
+                .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("demotech.request.entity.loads").summary().totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get("demotech.request.flushes").summary().totalAmount()).isZero();
+        assertThat(meterRegistry.find("demotech.request.sql.budget.exceeded").counter()).isNull();
+        assertThat(QueryCounter.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Должен отметить превышение лимита эндпоинта и повторяющиеся запросы")
+    void afterCompletion_WhenOverBudgetWithRepeatedSelects_ShouldCountBoth() {
+
+        interceptor.preHandle(request, response, new Object());
+        for (int i = 0; i < 3; i++) {
+            QueryCounter.statementPrepared("select s1_0.id from subscriptions s1_0 where s1_0.user_id=?");
+        }
+        QueryCounter.Counts counts = QueryCounter.current();
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertThat(counts.isOverBudget()).isTrue();
+        assertThat(counts.getRepeatedQueries(3)).containsValue(3);
+        assertThat(meterRegistry.get("demotech.request.sql.budget.exceeded").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("demotech.request.sql.repeated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Не должен считать повторами выборку значений последовательности")
+    void getRepeatedQueries_ShouldIgnoreSequenceCalls() {
+
+        QueryCounter.start();
+        for (int i = 0; i < 5; i++) {
+            QueryCounter.statementPrepared("select nextval('users_id_seq')");
+            QueryCounter.statementPrepared("insert into users (name,email,id) values (?,?,?)");
+        }
+
+        assertThat(QueryCounter.current().getRepeatedQueries(2)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен прервать запрос при превышении лимита в режиме reject")
+    void statementPrepared_WhenRejectModeAndOverBudget_ShouldThrow() {
+
+        sqlBudget.setMode(SqlBudgetProperties.Mode.REJECT);
+        interceptor.preHandle(request, response, new Object());
+        QueryCounter.statementPrepared("select 1");
+        QueryCounter.statementPrepared("select 2");
+
+        assertThatThrownBy(() -> QueryCounter.statementPrepared("select 3"))
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("3 из 2");
+    }
+
+    @Test
+    @DisplayName("Не должен ничего считать вне HTTP-запроса")
+    void counter_WhenNotStarted_ShouldIgnoreEvents() {
+
+        QueryCounter.statementPrepared("select 1");
+        QueryCounter.flushed();
+
+        assertThat(QueryCounter.current()).isNull();
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package org.techspec.demotech.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static QueryCounter.Counts countStatements(Runnable action) {
+        QueryCounter.start();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            QueryCounter.stop();
+            throw e;
+        }
+        return QueryCounter.stop();
+    }
+
+    public static void assertStatementCount(long expected, Runnable action) {
+        QueryCounter.Counts counts = countStatements(action);
+        assertThat(counts.getStatements())
+                .as("количество SQL-запросов")
+                .isEqualTo(expected);
+    }
+
+    public static void assertStatementCountAtMost(long limit, Runnable action) {
+        QueryCounter.Counts counts = countStatements(action);
+        assertThat(counts.getStatements())
+                .as("количество SQL-запросов")
+                .isLessThanOrEqualTo(limit);
+    }
+
+    public static void assertNoRepeatedQueries(Runnable action) {
+        QueryCounter.Counts counts = countStatements(action);
+        assertThat(counts.getRepeatedQueries(2))
+                .as("повторяющиеся SELECT-запросы (подозрение на N+1)")
+                .isEmpty();
+    }
+}
@@ -0,0 +1,79 @@
+package org.techspec.demotech.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.techspec.demotech.entity.OutboxEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FileOutboxSink Unit Tests")
+class FileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Должен дописывать события по одному JSON на строку")
+    void publish_ShouldAppendNewlineDelimitedJson() throws IOException {
+        Path file = directory.resolve("outbox/events.ndjson");
+
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(event(1L, OutboxEvents.USER_CREATED), event(2L, OutboxEvents.SUBSCRIPTION_CREATED)));
+            sink.publish(List.of(event(3L, OutboxEvents.USER_DELETED)));
+        }
+
+        List<JsonNode> lines = read(file);
+        assertThat(lines).extracting(line -> line.get("id").asLong()).containsExactly(1L, 2L, 3L);
+        assertThat(lines).extracting(line -> line.get("eventType").asText()).containsExactly(
+                OutboxEvents.USER_CREATED, OutboxEvents.SUBSCRIPTION_CREATED, OutboxEvents.USER_DELETED);
+        assertThat(lines.get(0).get("payload").get("userId").asLong()).isEqualTo(7L);
+        assertThat(Files.readString(file)).endsWith("\n");
+    }
+
+    @Test
+    @DisplayName("Должен продолжать существующий файл после повторного открытия")
+    void publish_AfterReopen_ShouldKeepPreviousEvents() throws IOException {
+        Path file = directory.resolve("events.ndjson");
+
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(event(1L, OutboxEvents.USER_CREATED)));
+        }
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(event(2L, OutboxEvents.USER_UPDATED)));
+            sink.publish(List.of());
+        }
+
+        assertThat(read(file)).extracting(line -> line.get("id").asLong()).containsExactly(1L, 2L);
+    }
+
+    private List<JsonNode> read(Path file) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private OutboxEvent event(Long id, String eventType) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(OutboxEvents.USER)
+                .aggregateId(7L)
+                .eventType(eventType)
+                .payload(objectMapper.createObjectNode().put("userId", 7L))
+                .createdAt(LocalDateTime.of(2024, 3, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package org.techspec.demotech.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.techspec.demotech.entity.OutboxEvent;
+import org.techspec.demotech.repository.OutboxEventRepository;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("OutboxRelay Unit Tests")
+class OutboxRelayTest {
+
+    private OutboxEventRepository repository;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Должен выбирать полные пачки, пока очередь не опустеет, и удалять переданные события")
+    void relay_ShouldDrainFullBatchesAndDeletePublished() {
+        InMemoryOutboxSink sink = new InMemoryOutboxSink();
+        OutboxRelay relay = new OutboxRelay(repository, sink, transactionManager, meterRegistry, 2);
+        when(repository.claimBatch(2)).thenReturn(events(1, 2), events(3, 4), events(5, 5));
+
+        relay.relay();
+
+        assertThat(sink.getEvents()).extracting(OutboxEvent::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verify(repository, times(3)).claimBatch(2);
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(5L));
+        verify(transactionManager, times(3)).commit(any());
+        assertThat(meterRegistry.get("demotech.outbox.events.relayed").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("demotech.outbox.relay.throughput").gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Должен оставить события в outbox, если приемник недоступен")
+    void relay_WhenSinkFails_ShouldKeepEvents() throws IOException {
+        OutboxSink sink = mock(OutboxSink.class);
+        OutboxRelay relay = new OutboxRelay(repository, sink, transactionManager, meterRegistry, 10);
+        when(repository.claimBatch(10)).thenReturn(events(1, 3));
+        doThrow(new IOException("disk full")).when(sink).publish(anyList());
+
+        relay.relay();
+
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        verify(transactionManager).rollback(any());
+        assertThat(meterRegistry.get("demotech.outbox.events.relayed").counter().count()).isZero();
+    }
+
+    private static List<OutboxEvent> events(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(id -> OutboxEvent.builder()
+                        .id(id)
+                        .aggregateType(OutboxEvents.USER)
+                        .aggregateId(id)
+                        .eventType(OutboxEvents.USER_CREATED)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package org.techspec.demotech.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.UserDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ReactiveReadRepository Unit Tests")
+class ReactiveReadRepositoryTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private DatabaseClient databaseClient;
+    private ReactiveReadRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = DatabaseClient.create(
+                ConnectionFactories.get("r2dbc:h2:mem:///reactive_reads;DB_CLOSE_DELAY=-1"));
+        execute("CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, name VARCHAR(255), email VARCHAR(255), " +
+                "created_at TIMESTAMP, updated_at TIMESTAMP, version BIGINT, subscriptions_version BIGINT)");
+        execute("CREATE TABLE IF NOT EXISTS subscriptions (id BIGINT PRIMARY KEY, user_id BIGINT, " +
+                "service_name VARCHAR(255), price DECIMAL(10, 2), created_at TIMESTAMP)");
+        execute("DELETE FROM subscriptions");
+        execute("DELETE FROM users");
+        execute("INSERT INTO users VALUES (1, 'Иван', 'ivan@example.com', TIMESTAMP '2024-03-01 12:00:00', " +
+                "TIMESTAMP '2024-03-01 12:00:00', 2, 5)");
+        execute("INSERT INTO subscriptions VALUES (11, 1, 'Spotify', 169.00, TIMESTAMP '2024-03-01 12:00:00')");
+        execute("INSERT INTO subscriptions VALUES (10, 1, 'Netflix', 299.00, TIMESTAMP '2024-03-01 12:00:00')");
+        repository = new ReactiveReadRepository(databaseClient);
+    }
+
+    @Test
+    @DisplayName("Должен читать пользователя и его версию подписок")
+    void findUserById_WhenExists_ShouldMapRow() {
+
+        UserDto user = repository.findUserById(1L).block();
+
+        assertThat(user).isEqualTo(UserDto.builder()
+                .id(1L)
+                .name("Иван")
+                .email("ivan@example.com")
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT)
+                .version(2L)
+                .build());
+        assertThat(repository.findSubscriptionsVersionById(1L).block()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть пустой результат для несуществующего пользователя")
+    void findUserById_WhenNotExists_ShouldBeEmpty() {
+
+        assertThat(repository.findUserById(2L).blockOptional()).isEmpty();
+        assertThat(repository.findSubscriptionsVersionById(2L).blockOptional()).isEmpty();
+        assertThat(repository.findSubscriptionsByUserId(2L).collectList().block()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен читать подписки пользователя по возрастанию ID")
+    void findSubscriptionsByUserId_ShouldMapRowsInIdOrder() {
+
+        List<SubscriptionDto> subscriptions = repository.findSubscriptionsByUserId(1L).collectList().block();
+
+        assertThat(subscriptions).extracting(SubscriptionDto::getId).containsExactly(10L, 11L);
+        assertThat(subscriptions.get(0).getServiceName()).isEqualTo("Netflix");
+        assertThat(subscriptions.get(0).getPrice()).isEqualByComparingTo(new BigDecimal("299.00"));
+        assertThat(subscriptions.get(0).getCreatedAt()).isEqualTo(CREATED_AT);
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
@@ -0,0 +1,208 @@
+package org.techspec.demotech.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.techspec.demotech.dto.CreateSubscriptionRequest;
+import org.techspec.demotech.dto.SubscriptionBatchItem;
+import org.techspec.demotech.dto.SubscriptionBatchItemResultDto;
+import org.techspec.demotech.dto.SubscriptionBatchResultDto;
+import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.exception.OutcomeUnknownException;
+import org.techspec.demotech.exception.UserNotFoundException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubscriptionGroupCommitter Unit Tests")
+class SubscriptionGroupCommitterTest {
+
+    @Mock
+    private SubscriptionService subscriptionService;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(3);
+
+    private SubscriptionGroupCommitter committer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        committer.close();
+    }
+
+    @Test
+    @DisplayName("Должен записать одновременные запросы одной пачкой и вернуть каждому свой результат")
+    void createSubscription_WhenConcurrent_ShouldCommitOneBatch() {
+        committer = committer(3);
+        when(subscriptionService.createSubscriptions(anyList())).thenAnswer(invocation -> {
+            List<SubscriptionBatchItem> items = invocation.getArgument(0);
+            List<SubscriptionBatchItemResultDto> results = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                results.add(result(i, items.get(i)));
+            }
+            return SubscriptionBatchResultDto.builder().results(results).build();
+        });
+
+        CompletableFuture<SubscriptionDto> created = submit(1L, "Netflix");
+        CompletableFuture<SubscriptionDto> duplicate = submit(1L, "Duplicate");
+        CompletableFuture<SubscriptionDto> missingUser = submit(-1L, "Spotify");
+
+        assertThat(created.join().getServiceName()).isEqualTo("Netflix");
+        assertThatThrownBy(duplicate::join).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(missingUser::join).hasCauseInstanceOf(UserNotFoundException.class);
+        verify(subscriptionService).createSubscriptions(anyList());
+        verify(subscriptionService, never()).createSubscription(any(), any());
+    }
+
+    @Test
+    @DisplayName("Должен записать запросы по одному, если пачка не прошла")
+    void createSubscription_WhenBatchFails_ShouldFallBackToSingleCommits() {
+        committer = committer(2);
+        when(subscriptionService.createSubscriptions(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(subscriptionService.createSubscription(eq(1L), any(CreateSubscriptionRequest.class)))
+                .thenAnswer(invocation -> SubscriptionDto.builder()
+                        .serviceName(invocation.<CreateSubscriptionRequest>getArgument(1).getServiceName())
+                        .build());
+
+        CompletableFuture<SubscriptionDto> netflix = submit(1L, "Netflix");
+        CompletableFuture<SubscriptionDto> spotify = submit(1L, "Spotify");
+
+        assertThat(netflix.join().getServiceName()).isEqualTo("Netflix");
+        assertThat(spotify.join().getServiceName()).isEqualTo("Spotify");
+        verify(subscriptionService, times(2)).createSubscription(eq(1L), any(CreateSubscriptionRequest.class));
+    }
+
+    @Test
+    @DisplayName("Должен использовать обычную запись, если в окне оказался один запрос")
+    void createSubscription_WhenAlone_ShouldUseSingleCommit() {
+        committer = new SubscriptionGroupCommitter(subscriptionService, new SimpleMeterRegistry(),
+                10, Duration.ofMillis(1), 10, 1, Duration.ofSeconds(5));
+        CreateSubscriptionRequest request = new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00"));
+        when(subscriptionService.createSubscription(1L, request))
+                .thenReturn(SubscriptionDto.builder().id(10L).serviceName("Netflix").build());
+
+        SubscriptionDto result = committer.createSubscription(1L, request);
+
+        assertThat(result.getId()).isEqualTo(10L);
+        verify(subscriptionService, never()).createSubscriptions(anyList());
+    }
+
+    @Test
+    @DisplayName("Должен отказать без записи, если подписка не дождалась своей пачки")
+    void createSubscription_WhenTimedOutInQueue_ShouldNotCommit() {
+        committer = new SubscriptionGroupCommitter(subscriptionService, new SimpleMeterRegistry(),
+                2, Duration.ofMillis(300), 10, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> committer.createSubscription(1L,
+                new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00"))))
+                .isInstanceOf(DataAccessResourceFailureException.class)
+                .isNotInstanceOf(OutcomeUnknownException.class);
+        verify(subscriptionService, after(600).never()).createSubscription(any(), any());
+    }
+
+    @Test
+    @DisplayName("Должен сообщать о неизвестном результате, если время вышло во время записи")
+    void createSubscription_WhenTimedOutDuringCommit_ShouldReportOutcomeUnknown() throws Exception {
+        committer = new SubscriptionGroupCommitter(subscriptionService, new SimpleMeterRegistry(),
+                10, Duration.ofMillis(1), 10, 1, Duration.ofMillis(100));
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(subscriptionService.createSubscription(eq(1L), any(CreateSubscriptionRequest.class)))
+                .thenAnswer(invocation -> {
+                    committing.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return SubscriptionDto.builder().id(10L).serviceName("Netflix").build();
+                });
+
+        try {
+            assertThatThrownBy(() -> committer.createSubscription(1L,
+                    new CreateSubscriptionRequest("Netflix", new BigDecimal("299.00"))))
+                    .isInstanceOf(OutcomeUnknownException.class);
+            assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Должен завершить ожидающих при непредвиденной ошибке и продолжить работу")
+    void createSubscription_WhenCommitFailsUnexpectedly_ShouldFailBatchAndKeepFlushing() {
+        committer = committer(2);
+        when(subscriptionService.createSubscriptions(anyList()))
+                .thenReturn(SubscriptionBatchResultDto.builder().results(List.of()).build())
+                .thenAnswer(invocation -> {
+                    List<SubscriptionBatchItem> items = invocation.getArgument(0);
+                    return SubscriptionBatchResultDto.builder()
+                            .results(List.of(result(0, items.get(0)), result(1, items.get(1))))
+                            .build();
+                });
+
+        CompletableFuture<SubscriptionDto> lost = submit(1L, "Netflix");
+        CompletableFuture<SubscriptionDto> lostToo = submit(2L, "Netflix");
+
+        assertThatThrownBy(lost::join).hasCauseInstanceOf(OutcomeUnknownException.class);
+        assertThatThrownBy(lostToo::join).hasCauseInstanceOf(OutcomeUnknownException.class);
+
+        CompletableFuture<SubscriptionDto> spotify = submit(1L, "Spotify");
+        CompletableFuture<SubscriptionDto> okko = submit(2L, "Okko");
+
+        assertThat(spotify.join().getServiceName()).isEqualTo("Spotify");
+        assertThat(okko.join().getServiceName()).isEqualTo("Okko");
+    }
+
+    private SubscriptionGroupCommitter committer(int batchSize) {
+        return new SubscriptionGroupCommitter(subscriptionService, new SimpleMeterRegistry(),
+                batchSize, Duration.ofSeconds(5), 100, 1, Duration.ofSeconds(10));
+    }
+
+    private CompletableFuture<SubscriptionDto> submit(Long userId, String serviceName) {
+        return CompletableFuture.supplyAsync(() -> committer.createSubscription(userId,
+                new CreateSubscriptionRequest(serviceName, new BigDecimal("100.00"))), callers);
+    }
+
+    private static SubscriptionBatchItemResultDto result(int index, SubscriptionBatchItem item) {
+        SubscriptionBatchItemResultDto.SubscriptionBatchItemResultDtoBuilder result = SubscriptionBatchItemResultDto.builder()
+                .index(index)
+                .userId(item.getUserId())
+                .serviceName(item.getServiceName());
+        if (item.getUserId() < 0) {
+            return result.status(SubscriptionBatchItemResultDto.Status.USER_NOT_FOUND)
+                    .message("Пользователь с ID " + item.getUserId() + " не найден")
+                    .build();
+        }
+        if ("Duplicate".equals(item.getServiceName())) {
+            return result.status(SubscriptionBatchItemResultDto.Status.DUPLICATE)
+                    .message("Подписка на сервис Duplicate уже существует")
+                    .build();
+        }
+        return result.status(SubscriptionBatchItemResultDto.Status.CREATED)
+                .subscription(SubscriptionDto.builder().serviceName(item.getServiceName()).build())
+                .build();
+    }
+}
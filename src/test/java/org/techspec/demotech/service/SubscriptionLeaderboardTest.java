@@ -0,0 +1,107 @@
+package org.techspec.demotech.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubscriptionLeaderboard Unit Tests")
+class SubscriptionLeaderboardTest {
+
+    @Mock
+    private SubscriptionRollups subscriptionRollups;
+
+    @InjectMocks
+    private SubscriptionLeaderboard leaderboard;
+
+    @Test
+    @DisplayName("Должен вернуть топ-N сервисов по убыванию количества подписчиков")
+    void top_ShouldReturnServicesOrderedByCount() {
+
+        leaderboard.recordCreated("Netflix", 5);
+        leaderboard.recordCreated("Spotify", 7);
+        leaderboard.recordCreated("YouTube Premium", 2);
+        leaderboard.recordCreated("Amazon Prime", 5);
+        leaderboard.recordDeleted("Spotify");
+
+        List<TopSubscriptionDto> top = leaderboard.top(3);
+
+        assertThat(top).extracting(TopSubscriptionDto::getServiceName)
+                .containsExactly("Spotify", "Amazon Prime", "Netflix");
+        assertThat(top.get(0).getSubscribersCount()).isEqualTo(6L);
+    }
+
+    @Test
+    @DisplayName("Не должен возвращать сервисы без подписчиков")
+    void top_ShouldSkipEmptyServices() {
+
+        leaderboard.recordCreated("Netflix");
+        leaderboard.recordDeleted("Netflix");
+
+        assertThat(leaderboard.top(3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Должен корректно считать при конкурентных обновлениях")
+    void recordCreated_WhenConcurrent_ShouldNotLoseUpdates() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> leaderboard.recordCreated("Netflix"));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(leaderboard.top(1).get(0).getSubscribersCount()).isEqualTo(10_000L);
+    }
+
+    @Test
+    @DisplayName("Первая сверка должна заполнить счетчики агрегатами из БД")
+    void reconcile_WhenInitial_ShouldReplaceCountersWithDatabaseCounts() {
+
+        leaderboard.recordCreated("Netflix", 3);
+        leaderboard.recordCreated("Removed Service", 4);
+        when(subscriptionRollups.totals()).thenReturn(Map.of("Spotify", 8L, "Netflix", 2L));
+
+        leaderboard.reconcile();
+
+        assertThat(leaderboard.top(5)).containsExactly(
+                new TopSubscriptionDto("Spotify", 8L),
+                new TopSubscriptionDto("Netflix", 2L));
+    }
+
+    @Test
+    @DisplayName("Должен исправлять счетчик, только если то же расхождение повторилось при двух сверках подряд")
+    void reconcile_ShouldCorrectOnlyDriftConfirmedByTwoRuns() {
+        when(subscriptionRollups.totals()).thenReturn(Map.of("Netflix", 5L, "Spotify", 3L));
+        leaderboard.reconcile();
+
+        leaderboard.recordCreated("Netflix");
+        leaderboard.recordDeleted("Spotify");
+        leaderboard.reconcile();
+
+        assertThat(leaderboard.top(5)).containsExactly(
+                new TopSubscriptionDto("Netflix", 6L),
+                new TopSubscriptionDto("Spotify", 2L));
+
+        when(subscriptionRollups.totals()).thenReturn(Map.of("Netflix", 6L, "Spotify", 3L));
+        leaderboard.reconcile();
+
+        assertThat(leaderboard.top(5)).containsExactly(
+                new TopSubscriptionDto("Netflix", 6L),
+                new TopSubscriptionDto("Spotify", 3L));
+    }
+}
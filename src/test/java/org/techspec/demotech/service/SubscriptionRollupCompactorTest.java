@@ -0,0 +1,117 @@
+package org.techspec.demotech.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.techspec.demotech.entity.SubscriptionRollup;
+import org.techspec.demotech.entity.SubscriptionRollupDelta;
+import org.techspec.demotech.repository.SubscriptionRollupDeltaRepository;
+import org.techspec.demotech.repository.SubscriptionRollupRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SubscriptionRollupCompactor Unit Tests")
+class SubscriptionRollupCompactorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 10, 12, 30);
+
+    private SubscriptionRollupDeltaRepository deltaRepository;
+    private SubscriptionRollupRepository rollupRepository;
+    private EntityManager entityManager;
+    private SubscriptionRollupCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        deltaRepository = mock(SubscriptionRollupDeltaRepository.class);
+        rollupRepository = mock(SubscriptionRollupRepository.class);
+        entityManager = mock(EntityManager.class);
+        compactor = new SubscriptionRollupCompactor(deltaRepository, rollupRepository, entityManager,
+                mock(PlatformTransactionManager.class), 3, Duration.ofDays(8),
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC")));
+    }
+
+    @Test
+    @DisplayName("Должен сложить изменения в часовые корзины и удалить их")
+    void compact_ShouldMergeDeltasIntoHourlyBuckets() {
+        SubscriptionRollup existing = rollup("Netflix", NOW.withMinute(0), 10);
+        when(deltaRepository.claimBatch(3)).thenReturn(
+                List.of(delta(1L, "Netflix", 1, NOW.withMinute(5)),
+                        delta(2L, "Netflix", -1, NOW.withMinute(10)),
+                        delta(3L, "Netflix", 1, NOW.withMinute(20))),
+                List.of(delta(4L, "Spotify", 2, NOW.minusHours(1))));
+        when(rollupRepository.lockBuckets(anyCollection(), anyCollection())).thenReturn(List.of(existing), List.of());
+        when(rollupRepository.lockBucketsBetween(any(), any())).thenReturn(List.of());
+
+        compactor.compact();
+
+        assertThat(existing.getSubscriptions()).isEqualTo(11);
+        ArgumentCaptor<SubscriptionRollup> created = ArgumentCaptor.forClass(SubscriptionRollup.class);
+        verify(entityManager).persist(created.capture());
+        assertThat(created.getValue()).isEqualTo(rollup("Spotify", NOW.minusHours(1).withMinute(0), 2));
+        verify(deltaRepository, times(2)).claimBatch(3);
+        verify(deltaRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(deltaRepository).deleteAllByIdInBatch(List.of(4L));
+    }
+
+    @Test
+    @DisplayName("Должен свернуть часовые корзины старше срока хранения в итог за все время")
+    void compact_ShouldFoldExpiredBucketsIntoAllTimeBucket() {
+        SubscriptionRollup allTime = rollup("Netflix", SubscriptionRollup.ALL_TIME_BUCKET, 100);
+        List<SubscriptionRollup> expired = List.of(
+                rollup("Netflix", NOW.minusDays(9).withMinute(0), 3),
+                rollup("Netflix", NOW.minusDays(10).withMinute(0), -1));
+        when(deltaRepository.claimBatch(3)).thenReturn(List.of());
+        when(rollupRepository.lockBucketsBetween(SubscriptionRollup.ALL_TIME_BUCKET, NOW.withMinute(0).minusDays(8)))
+                .thenReturn(expired);
+        when(rollupRepository.lockBuckets(anyCollection(), anyCollection())).thenReturn(List.of(allTime));
+
+        compactor.compact();
+
+        assertThat(allTime.getSubscriptions()).isEqualTo(102);
+        verify(rollupRepository).deleteAll(expired);
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @DisplayName("Не должен принимать срок хранения короче самого длинного окна рейтинга")
+    void constructor_WhenRetentionShorterThanWindow_ShouldFail() {
+        assertThatThrownBy(() -> new SubscriptionRollupCompactor(deltaRepository, rollupRepository, entityManager,
+                mock(PlatformTransactionManager.class), 3, Duration.ofDays(7)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SubscriptionRollupDelta delta(Long id, String serviceName, long delta, LocalDateTime createdAt) {
+        return SubscriptionRollupDelta.builder()
+                .id(id)
+                .serviceName(serviceName)
+                .delta(delta)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static SubscriptionRollup rollup(String serviceName, LocalDateTime bucketStart, long subscriptions) {
+        return SubscriptionRollup.builder()
+                .serviceName(serviceName)
+                .bucketStart(bucketStart)
+                .subscriptions(subscriptions)
+                .build();
+    }
+}
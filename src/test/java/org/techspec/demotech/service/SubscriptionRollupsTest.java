@@ -0,0 +1,86 @@
+package org.techspec.demotech.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.entity.SubscriptionRollupDelta;
+import org.techspec.demotech.repository.SubscriptionRollupRepository;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SubscriptionRollups Unit Tests")
+class SubscriptionRollupsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 10, 12, 0, 30);
+
+    private EntityManager entityManager;
+    private SubscriptionRollupRepository rollupRepository;
+    private SubscriptionRollups rollups;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        rollupRepository = mock(SubscriptionRollupRepository.class);
+        rollups = new SubscriptionRollups(entityManager, rollupRepository,
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC")));
+    }
+
+    @Test
+    @DisplayName("Окно на границе часа должно включать полные часовые корзины и текущую неполную")
+    void windowStart_AtHourBoundary_ShouldCoverFullBuckets() {
+
+        assertThat(rollups.windowStart(SubscriptionRollups.Window.HOUR)).isEqualTo(NOW.withSecond(0).minusHours(1));
+        assertThat(rollups.windowStart(SubscriptionRollups.Window.DAY)).isEqualTo(NOW.withSecond(0).minusHours(24));
+        assertThat(rollups.windowStart(SubscriptionRollups.Window.WEEK)).isEqualTo(NOW.withSecond(0).minusDays(7));
+    }
+
+    @Test
+    @DisplayName("Должен ранжировать сервисы за окно и отбрасывать неположительные суммы")
+    void top_ShouldRankPositiveSumsSinceWindowStart() {
+        when(rollupRepository.sumByServiceSince(NOW.withSecond(0).minusHours(1))).thenReturn(List.of(
+                new Object[]{"Spotify", 3L},
+                new Object[]{"Netflix", 5L},
+                new Object[]{"Okko", 0L}));
+
+        List<TopSubscriptionDto> top = rollups.top(SubscriptionRollups.Window.HOUR, 10);
+
+        assertThat(top).containsExactly(
+                new TopSubscriptionDto("Netflix", 5L),
+                new TopSubscriptionDto("Spotify", 3L));
+        assertThat(top).isUnmodifiable();
+    }
+
+    @Test
+    @DisplayName("Удаление должно уменьшать корзину часа создания подписки, а не текущий час")
+    void subscriptionsRemoved_ShouldChargeCreationBuckets() {
+        LocalDateTime lastWeek = LocalDateTime.of(2024, 3, 3, 9, 20);
+
+        rollups.subscriptionRemoved("Okko", null);
+        rollups.subscriptionsRemoved(Map.of("Netflix", List.of(lastWeek, lastWeek.plusMinutes(30), NOW.minusHours(2))));
+
+        ArgumentCaptor<SubscriptionRollupDelta> deltas = ArgumentCaptor.forClass(SubscriptionRollupDelta.class);
+        verify(entityManager, times(3)).persist(deltas.capture());
+        assertThat(deltas.getAllValues())
+                .extracting(SubscriptionRollupDelta::getServiceName, SubscriptionRollupDelta::getDelta,
+                        SubscriptionRollupDelta::getCreatedAt)
+                .containsExactlyInAnyOrder(
+                        tuple("Okko", -1L, NOW.withMinute(0).withSecond(0)),
+                        tuple("Netflix", -2L, lastWeek.withMinute(0)),
+                        tuple("Netflix", -1L, NOW.minusHours(2).withMinute(0).withSecond(0)));
+    }
+}
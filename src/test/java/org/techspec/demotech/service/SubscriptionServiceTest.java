@@ -1,31 +1,49 @@
 package org.techspec.demotech.service;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.techspec.demotech.cache.SingleFlight;
+import org.techspec.demotech.cache.UserCache;
 import org.techspec.demotech.dto.CreateSubscriptionRequest;
+import org.techspec.demotech.dto.SubscriptionBatchItem;
+import org.techspec.demotech.dto.SubscriptionBatchItemResultDto;
+import org.techspec.demotech.dto.SubscriptionBatchResultDto;
 import org.techspec.demotech.dto.SubscriptionDto;
+import org.techspec.demotech.dto.TopSubscriptionDto;
+import org.techspec.demotech.dto.UserSubscriptionsDto;
 import org.techspec.demotech.entity.Subscription;
 import org.techspec.demotech.entity.User;
 import org.techspec.demotech.exception.SubscriptionNotFoundException;
 import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.outbox.OutboxEvents;
 import org.techspec.demotech.repository.SubscriptionRepository;
 import org.techspec.demotech.repository.UserRepository;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +56,27 @@ class SubscriptionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SubscriptionLeaderboard leaderboard;
+
+    @Mock
+    private UserProfileProjection userProfileProjection;
+
+    @Mock
+    private OutboxEvents outboxEvents;
+
+    @Mock
+    private SubscriptionRollups subscriptionRollups;
+
+    @Spy
+    private UserCache userCache = new UserCache(1000, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(1));
+
     @InjectMocks
     private SubscriptionService subscriptionService;
 
@@ -69,9 +108,9 @@ class SubscriptionServiceTest {
     void createSubscription_WhenValidRequest_ShouldReturnSubscriptionDto() {
 
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(subscriptionRepository.existsByUserIdAndServiceName(userId, "Netflix")).thenReturn(false);
-        when(subscriptionRepository.save(any(Subscription.class))).thenReturn(testSubscription);
+        when(userRepository.incrementSubscriptionsVersion(userId)).thenReturn(1);
+        when(userRepository.getReferenceById(userId)).thenReturn(testUser);
+        when(subscriptionRepository.saveAndFlush(any(Subscription.class))).thenReturn(testSubscription);
 
         SubscriptionDto result = subscriptionService.createSubscription(userId, createSubscriptionRequest);
 
@@ -79,9 +118,14 @@ class SubscriptionServiceTest {
         assertThat(result.getServiceName()).isEqualTo("Netflix");
         assertThat(result.getPrice()).isEqualTo(new BigDecimal("299.00"));
 
-        verify(userRepository).findById(userId);
-        verify(subscriptionRepository).existsByUserIdAndServiceName(userId, "Netflix");
-        verify(subscriptionRepository).save(any(Subscription.class));
+        verify(userRepository).incrementSubscriptionsVersion(userId);
+        verify(subscriptionRepository).saveAndFlush(any(Subscription.class));
+        verify(userRepository, never()).findById(any());
+        verify(subscriptionRepository, never()).existsByUserIdAndServiceName(any(), any());
+        verify(leaderboard).recordCreated("Netflix");
+        verify(subscriptionRollups).subscriptionAdded("Netflix");
+        verify(userProfileProjection).subscriptionAdded(eq(userId), any(SubscriptionDto.class));
+        verify(outboxEvents).subscriptionCreated(userId, result);
     }
 
     @Test
@@ -89,13 +133,13 @@ class SubscriptionServiceTest {
     void createSubscription_WhenUserNotExists_ShouldThrowException() {
 
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.incrementSubscriptionsVersion(userId)).thenReturn(0);
 
         assertThatThrownBy(() -> subscriptionService.createSubscription(userId, createSubscriptionRequest))
                 .isInstanceOf(UserNotFoundException.class);
 
-        verify(userRepository).findById(userId);
-        verify(subscriptionRepository, never()).save(any(Subscription.class));
+        verify(userRepository).incrementSubscriptionsVersion(userId);
+        verify(subscriptionRepository, never()).saveAndFlush(any(Subscription.class));
     }
 
     @Test
@@ -103,14 +147,75 @@ class SubscriptionServiceTest {
     void createSubscription_WhenSubscriptionExists_ShouldThrowException() {
 
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(subscriptionRepository.existsByUserIdAndServiceName(userId, "Netflix")).thenReturn(true);
+        when(userRepository.incrementSubscriptionsVersion(userId)).thenReturn(1);
+        when(userRepository.getReferenceById(userId)).thenReturn(testUser);
+        when(subscriptionRepository.saveAndFlush(any(Subscription.class))).thenThrow(
+                new DataIntegrityViolationException("duplicate key", new SQLException("duplicate key", "23505")));
 
         assertThatThrownBy(() -> subscriptionService.createSubscription(userId, createSubscriptionRequest))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Подписка на сервис Netflix уже существует");
 
-        verify(subscriptionRepository, never()).save(any(Subscription.class));
+        verify(leaderboard, never()).recordCreated(any());
+    }
+
+    @Test
+    @DisplayName("Должен создать подписки пакетом и вернуть результат по каждому элементу")
+    void createSubscriptions_ShouldReturnPerItemResults() {
+
+        List<SubscriptionBatchItem> items = List.of(
+                new SubscriptionBatchItem(1L, "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(1L, "Spotify", new BigDecimal("199.00")),
+                new SubscriptionBatchItem(2L, "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(3L, "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(3L, "Netflix", new BigDecimal("299.00")));
+
+        when(userRepository.lockExistingIds(anyCollection())).thenReturn(List.of(1L, 3L));
+        when(subscriptionRepository.findExistingUserServicePairs(anyCollection(), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "Netflix"}));
+        when(userRepository.getReferenceById(any())).thenReturn(testUser);
+
+        SubscriptionBatchResultDto result = subscriptionService.createSubscriptions(items);
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getResults()).extracting(SubscriptionBatchItemResultDto::getStatus).containsExactly(
+                SubscriptionBatchItemResultDto.Status.DUPLICATE,
+                SubscriptionBatchItemResultDto.Status.CREATED,
+                SubscriptionBatchItemResultDto.Status.USER_NOT_FOUND,
+                SubscriptionBatchItemResultDto.Status.CREATED,
+                SubscriptionBatchItemResultDto.Status.DUPLICATE);
+        assertThat(result.getResults().get(1).getSubscription().getServiceName()).isEqualTo("Spotify");
+
+        verify(userRepository, times(1)).lockExistingIds(anyCollection());
+        verify(userRepository, never()).findById(any());
+        verify(subscriptionRepository, never()).existsByUserIdAndServiceName(any(), any());
+        verify(subscriptionRepository).saveAll(anyList());
+        verify(userRepository).incrementSubscriptionsVersions(List.of(1L, 3L));
+        verify(leaderboard).recordCreated("Spotify", 1L);
+        verify(leaderboard).recordCreated("Netflix", 1L);
+        verify(subscriptionRollups).subscriptionsAdded(Map.of("Spotify", 1L, "Netflix", 1L));
+    }
+
+    @Test
+    @DisplayName("Должен блокировать пользователей пакета по возрастанию ID до проверки дубликатов")
+    void createSubscriptions_ShouldLockUsersInIdOrderBeforeChecks() {
+
+        List<SubscriptionBatchItem> items = List.of(
+                new SubscriptionBatchItem(3L, "Netflix", new BigDecimal("299.00")),
+                new SubscriptionBatchItem(1L, "Spotify", new BigDecimal("199.00")));
+        when(userRepository.lockExistingIds(anyCollection())).thenReturn(List.of(1L, 3L));
+        when(subscriptionRepository.findExistingUserServicePairs(anyCollection(), anyCollection()))
+                .thenReturn(List.of());
+        when(userRepository.getReferenceById(any())).thenReturn(testUser);
+
+        subscriptionService.createSubscriptions(items);
+
+        InOrder inOrder = inOrder(userRepository, subscriptionRepository);
+        inOrder.verify(userRepository).lockExistingIds(List.of(1L, 3L));
+        inOrder.verify(subscriptionRepository).findExistingUserServicePairs(List.of(1L, 3L), Set.of("Netflix", "Spotify"));
+        inOrder.verify(subscriptionRepository).saveAll(anyList());
+        verify(userRepository, never()).findExistingIds(anyCollection());
     }
 
     @Test
@@ -130,6 +235,35 @@ class SubscriptionServiceTest {
         verify(subscriptionRepository).findByUserId(userId);
     }
 
+    @Test
+    @DisplayName("Должен вернуть подписки по списку пользователей одним IN-запросом с отметкой ненайденных")
+    void getSubscriptionsByUserIds_ShouldKeepRequestOrderAndReportMisses() {
+
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(subscriptionRepository.findByUserIdInOrderByIdAsc(List.of(2L, 1L)))
+                .thenReturn(List.of(testSubscription));
+
+        List<UserSubscriptionsDto> result = subscriptionService.getSubscriptionsByUserIds(List.of(2L, 1L, 99L));
+
+        assertThat(result).extracting(UserSubscriptionsDto::getUserId).containsExactly(2L, 1L, 99L);
+        assertThat(result).extracting(UserSubscriptionsDto::isFound).containsExactly(true, true, false);
+        assertThat(result.get(0).getSubscriptions()).isEmpty();
+        assertThat(result.get(1).getSubscriptions()).extracting(SubscriptionDto::getServiceName)
+                .containsExactly("Netflix");
+        assertThat(result.get(2).getSubscriptions()).isNull();
+        verify(userRepository, never()).existsById(any());
+        verify(subscriptionRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    @DisplayName("Должен отклонить список пользователей с пустым ID")
+    void getSubscriptionsByUserIds_WhenContainsNull_ShouldThrowException() {
+
+        assertThatThrownBy(() -> subscriptionService.getSubscriptionsByUserIds(Arrays.asList(1L, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRepository, subscriptionRepository);
+    }
+
     @Test
     @DisplayName("Должен успешно удалить подписку")
     void deleteSubscription_WhenSubscriptionExists_ShouldDeleteSubscription() {
@@ -143,6 +277,11 @@ class SubscriptionServiceTest {
 
         verify(subscriptionRepository).findByIdAndUserId(subscriptionId, userId);
         verify(subscriptionRepository).delete(testSubscription);
+        verify(userRepository).incrementSubscriptionsVersion(userId);
+        verify(leaderboard).recordDeleted("Netflix");
+        verify(subscriptionRollups).subscriptionRemoved("Netflix", testSubscription.getCreatedAt());
+        verify(userProfileProjection).subscriptionRemoved(userId, subscriptionId);
+        verify(outboxEvents).subscriptionDeleted(userId, subscriptionId);
     }
 
     @Test
@@ -161,23 +300,46 @@ class SubscriptionServiceTest {
     }
 
     @Test
-    @DisplayName("Должен вернуть топ-3 популярных подписок")
-    void getTopSubscriptions_ShouldReturnTopThree() {
+    @DisplayName("Должен вернуть топ-3 популярных подписок из рейтинга в памяти")
+    void getTopSubscriptions_ShouldReturnTopFromLeaderboard() {
+
+        List<TopSubscriptionDto> top = List.of(
+                new TopSubscriptionDto("Netflix", 10L),
+                new TopSubscriptionDto("Spotify", 8L),
+                new TopSubscriptionDto("YouTube Premium", 5L));
+        when(leaderboard.top(3)).thenReturn(top);
+
+        List<TopSubscriptionDto> result = subscriptionService.getTopSubscriptions(3);
+
+        assertThat(result).isSameAs(top);
+        assertThat(result.get(0).getServiceName()).isEqualTo("Netflix");
+        assertThat(result.get(0).getSubscribersCount()).isEqualTo(10L);
+
+        verify(subscriptionRepository, never()).findTopServicesBySubscriptionCount();
+    }
+
+    @Test
+    @DisplayName("Должен ограничить размер топа допустимым диапазоном")
+    void getTopSubscriptions_WhenLimitOutOfRange_ShouldClampLimit() {
+
+        subscriptionService.getTopSubscriptions(0);
+        subscriptionService.getTopSubscriptions(100_000);
 
-        Object[] result1 = {"Netflix", 10L};
-        Object[] result2 = {"Spotify", 8L};
-        Object[] result3 = {"YouTube Premium", 5L};
-        Object[] result4 = {"Amazon Prime", 3L};
+        verify(leaderboard).top(1);
+        verify(leaderboard).top(SubscriptionService.MAX_TOP_LIMIT);
+    }
 
-        when(subscriptionRepository.findTopServicesBySubscriptionCount())
-                .thenReturn(Arrays.asList(result1, result2, result3, result4));
+    @Test
+    @DisplayName("Должен вернуть топ за окно из почасовых агрегатов, не трогая рейтинг за все время")
+    void getTopSubscriptions_WithWindow_ShouldUseRollups() {
 
-        List<Map<String, Object>> result = subscriptionService.getTopSubscriptions();
+        List<TopSubscriptionDto> top = List.of(new TopSubscriptionDto("Spotify", 4L));
+        when(subscriptionRollups.top(SubscriptionRollups.Window.DAY, 5)).thenReturn(top);
 
-        assertThat(result).hasSize(3);
-        assertThat(result.get(0).get("serviceName")).isEqualTo("Netflix");
-        assertThat(result.get(0).get("subscribersCount")).isEqualTo(10L);
+        List<TopSubscriptionDto> result = subscriptionService.getTopSubscriptions(SubscriptionRollups.Window.DAY, 5);
 
-        verify(subscriptionRepository).findTopServicesBySubscriptionCount();
+        assertThat(result).isEqualTo(top);
+        verify(leaderboard, never()).top(anyInt());
+        verify(subscriptionRepository, never()).findTopServicesBySubscriptionCount();
     }
 }
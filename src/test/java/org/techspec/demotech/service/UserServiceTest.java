@@ -1,27 +1,49 @@
 package org.techspec.demotech.service;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.techspec.demotech.cache.SingleFlight;
+import org.techspec.demotech.cache.UserCache;
 import org.techspec.demotech.dto.CreateUserRequest;
+import org.techspec.demotech.dto.SubscriptionDto;
 import org.techspec.demotech.dto.UpdateUserRequest;
+import org.techspec.demotech.dto.UserLookupDto;
 import org.techspec.demotech.dto.UserDto;
+import org.techspec.demotech.dto.UserPageDto;
+import org.techspec.demotech.dto.UserProfileDto;
+import org.techspec.demotech.entity.Subscription;
 import org.techspec.demotech.entity.User;
+import org.techspec.demotech.entity.UserProfile;
 import org.techspec.demotech.exception.UserNotFoundException;
+import org.techspec.demotech.jdbc.ReplicaRoutingContext;
+import org.techspec.demotech.outbox.OutboxEvents;
+import org.techspec.demotech.repository.SubscriptionRepository;
+import org.techspec.demotech.repository.UserProfileRepository;
 import org.techspec.demotech.repository.UserRepository;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -32,6 +54,33 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private UserProfileRepository userProfileRepository;
+
+    @Mock
+    private UserProfileProjection userProfileProjection;
+
+    @Mock
+    private OutboxEvents outboxEvents;
+
+    @Mock
+    private SubscriptionRollups subscriptionRollups;
+
+    @Mock
+    private SubscriptionLeaderboard leaderboard;
+
+    @Spy
+    private UserCache userCache = new UserCache(1000, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(1));
+
     @InjectMocks
     private UserService userService;
 
@@ -57,8 +106,7 @@ class UserServiceTest {
     @DisplayName("Должен успешно создать пользователя")
     void createUser_WhenValidRequest_ShouldReturnUserDto() {
 
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         UserDto result = userService.createUser(createUserRequest);
 
@@ -66,25 +114,112 @@ class UserServiceTest {
         assertThat(result.getName()).isEqualTo(testUser.getName());
         assertThat(result.getEmail()).isEqualTo(testUser.getEmail());
 
-        verify(userRepository).existsByEmail(createUserRequest.getEmail());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userProfileProjection).usersCreated(List.of(testUser));
+        verify(outboxEvents).usersCreated(List.of(result));
     }
 
     @Test
     @DisplayName("Должен выбросить исключение при создании пользователя с существующим email")
     void createUser_WhenEmailExists_ShouldThrowException() {
 
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
-
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(
+                new DataIntegrityViolationException("duplicate key", new SQLException("duplicate key", "23505")));
 
         assertThatThrownBy(() -> userService.createUser(createUserRequest))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Пользователь с таким email уже существует");
 
-        verify(userRepository).existsByEmail(createUserRequest.getEmail());
+        verify(userCache, never()).evict(any());
+    }
+
+    @Test
+    @DisplayName("Должен пробросить нарушение целостности, не связанное с уникальностью")
+    void createUser_WhenOtherIntegrityViolation_ShouldRethrow() {
+
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(
+                new DataIntegrityViolationException("not null", new SQLException("not null", "23502")));
+
+        assertThatThrownBy(() -> userService.createUser(createUserRequest))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Должен создать пользователей пакетом одним запросом проверки email")
+    void createUsers_WhenEmailsAreFree_ShouldSaveAllUsers() {
+
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("Первый", "first@example.com"),
+                new CreateUserRequest("Второй", "second@example.com"));
+        when(userRepository.findEmailsByEmailIn(anyCollection())).thenReturn(List.of());
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            long id = 1;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return users;
+        });
+
+        List<UserDto> result = userService.createUsers(requests);
+
+        assertThat(result).extracting(UserDto::getEmail)
+                .containsExactly("first@example.com", "second@example.com");
+        assertThat(result).extracting(UserDto::getId).containsExactly(1L, 2L);
+
+        verify(userRepository, times(1)).findEmailsByEmailIn(anyCollection());
+        verify(userRepository).saveAll(anyList());
+        verify(userRepository).flush();
+        verify(userRepository, never()).existsByEmail(anyString());
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    @DisplayName("Должен отклонить пакет, если email занят параллельной вставкой после проверки")
+    void createUsers_WhenConcurrentInsertTakesEmail_ShouldThrowIllegalArgument() {
+
+        when(userRepository.findEmailsByEmailIn(anyCollection())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("duplicate key", new SQLException("duplicate key", "23505")))
+                .when(userRepository).flush();
+
+        assertThatThrownBy(() -> userService.createUsers(List.of(createUserRequest)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Пользователи с такими email уже существуют");
+
+        verify(userCache, never()).evictAll(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Должен пробросить нарушение целостности пакета, не связанное с уникальностью")
+    void createUsers_WhenOtherIntegrityViolation_ShouldRethrow() {
+
+        when(userRepository.findEmailsByEmailIn(anyCollection())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("not null", new SQLException("not null", "23502")))
+                .when(userRepository).flush();
+
+        assertThatThrownBy(() -> userService.createUsers(List.of(createUserRequest)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Должен отклонить пакет с уже существующими или повторяющимися email")
+    void createUsers_WhenEmailsConflict_ShouldThrowException() {
+
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("Первый", "first@example.com"),
+                new CreateUserRequest("Второй", "second@example.com"),
+                new CreateUserRequest("Копия", "second@example.com"));
+        when(userRepository.findEmailsByEmailIn(anyCollection())).thenReturn(List.of("first@example.com"));
+
+        assertThatThrownBy(() -> userService.createUsers(requests))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("first@example.com")
+                .hasMessageContaining("second@example.com");
+
+        verify(userRepository, never()).saveAll(anyList());
+    }
+
     @Test
     @DisplayName("Должен успешно найти пользователя по ID")
     void getUserById_WhenUserExists_ShouldReturnUserDto() {
@@ -116,8 +251,114 @@ class UserServiceTest {
     }
 
     @Test
-    @DisplayName("Должен вернуть всех пользователей")
-    void getAllUsers_ShouldReturnAllUsers() {
+    @DisplayName("Должен заполнять кэш пользователей только чтением с primary")
+    void getUserById_WhenCacheMiss_ShouldLoadFromPrimary() {
+
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenAnswer(invocation -> {
+            assertThat(ReplicaRoutingContext.isPrimaryForced()).isTrue();
+            return Optional.of(testUser);
+        });
+
+        userService.getUserById(userId);
+
+        verify(userRepository).findById(userId);
+        assertThat(ReplicaRoutingContext.isPrimaryForced()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Должен отдавать пользователя из кэша при повторном запросе")
+    void getUserById_WhenCached_ShouldNotQueryDatabaseAgain() {
+
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+
+        userService.getUserById(userId);
+        UserDto result = userService.getUserById(userId);
+
+        assertThat(result.getName()).isEqualTo(testUser.getName());
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    @DisplayName("Должен кэшировать отсутствие пользователя")
+    void getUserById_WhenUserNotExists_ShouldCacheNotFound() {
+
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getUserById(userId)).isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> userService.getUserById(userId)).isInstanceOf(UserNotFoundException.class);
+
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    @DisplayName("Должен сбрасывать кэш пользователя после обновления")
+    void updateUser_ShouldEvictCachedUser() {
+
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
+
+        userService.getUserById(userId);
+        userService.updateUser(userId, updateUserRequest);
+        UserDto result = userService.getUserById(userId);
+
+        assertThat(result.getName()).isEqualTo("Обновленное Имя");
+        verify(userCache).evict(userId);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть профиль пользователя из модели чтения одним запросом")
+    void getUserProfile_WhenProjectionExists_ShouldNotLoadUser() {
+
+        UserProfile profile = UserProfile.builder()
+                .userId(1L)
+                .name(testUser.getName())
+                .email(testUser.getEmail())
+                .subscriptions(List.of(SubscriptionDto.builder().id(10L).serviceName("Netflix").build()))
+                .revision(4L)
+                .build();
+        when(userProfileRepository.findById(1L)).thenReturn(Optional.of(profile));
+
+        UserProfileDto result = userService.getUserProfile(1L);
+
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getRevision()).isEqualTo(4L);
+        assertThat(result.getSubscriptions()).extracting(SubscriptionDto::getServiceName).containsExactly("Netflix");
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Должен собрать профиль из пользователя, если модель чтения еще не заполнена")
+    void getUserProfile_WhenProjectionMissing_ShouldComposeFromUser() {
+
+        testUser.setSubscriptions(List.of());
+        when(userProfileRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        UserProfileDto result = userService.getUserProfile(1L);
+
+        assertThat(result.getEmail()).isEqualTo(testUser.getEmail());
+        assertThat(result.getSubscriptions()).isEmpty();
+        assertThat(result.getRevision()).isNull();
+    }
+
+    @Test
+    @DisplayName("Должен выбросить исключение, если профиль запрошен для несуществующего пользователя")
+    void getUserProfile_WhenUserNotExists_ShouldThrowException() {
+
+        when(userProfileRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getUserProfile(1L))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть страницу пользователей с курсором следующей страницы")
+    void getUsers_WhenMoreUsersExist_ShouldReturnNextCursor() {
 
         User user2 = User.builder()
                 .id(2L)
@@ -125,15 +366,116 @@ class UserServiceTest {
                 .email("second@example.com")
                 .build();
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser, user2));
+        User user3 = User.builder()
+                .id(3L)
+                .name("Третий Пользователь")
+                .email("third@example.com")
+                .build();
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(testUser, user2, user3));
+        when(userRepository.estimateCount()).thenReturn(3L);
 
-        List<UserDto> result = userService.getAllUsers();
+        UserPageDto result = userService.getUsers(null, 2);
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getName()).isEqualTo(testUser.getName());
-        assertThat(result.get(1).getName()).isEqualTo(user2.getName());
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(result.getItems().get(0).getName()).isEqualTo(testUser.getName());
+        assertThat(result.getItems().get(1).getName()).isEqualTo(user2.getName());
+        assertThat(result.getNextCursor()).isEqualTo(2L);
+        assertThat(result.getApproximateTotal()).isEqualTo(3L);
 
-        verify(userRepository).findAll();
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3));
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Должен загрузить пользователя вместе с подписками одним запросом")
+    void getUserWithSubscriptions_ShouldUseEntityGraph() {
+
+        testUser.setSubscriptionsVersion(2L);
+        testUser.setSubscriptions(List.of(
+                Subscription.builder().id(20L).user(testUser).serviceName("Spotify").build(),
+                Subscription.builder().id(10L).user(testUser).serviceName("Netflix").build()));
+        when(userRepository.findWithSubscriptionsById(1L)).thenReturn(Optional.of(testUser));
+
+        UserDto result = userService.getUserWithSubscriptions(1L);
+
+        assertThat(result.getSubscriptionsVersion()).isEqualTo(2L);
+        assertThat(result.getSubscriptions()).extracting(SubscriptionDto::getServiceName)
+                .containsExactly("Netflix", "Spotify");
+        verify(userRepository, never()).findById(any());
+        verify(subscriptionRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    @DisplayName("Должен встроить подписки в страницу пользователей одним IN-запросом")
+    void getUsers_WithSubscriptions_ShouldFetchSubscriptionsInBatch() {
+
+        User user2 = User.builder().id(2L).name("Второй Пользователь").email("second@example.com").build();
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(testUser, user2));
+        when(subscriptionRepository.findByUserIdInOrderByIdAsc(List.of(1L, 2L))).thenReturn(List.of(
+                Subscription.builder().id(10L).user(testUser).serviceName("Netflix").build()));
+
+        UserPageDto result = userService.getUsers(null, 2, true);
+
+        assertThat(result.getItems().get(0).getSubscriptions()).extracting(SubscriptionDto::getServiceName)
+                .containsExactly("Netflix");
+        assertThat(result.getItems().get(1).getSubscriptions()).isEmpty();
+        verify(subscriptionRepository, times(1)).findByUserIdInOrderByIdAsc(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Должен вернуть пользователей по списку ID в порядке запроса с отметкой ненайденных")
+    void getUsersByIds_ShouldKeepRequestOrderAndReportMisses() {
+
+        User user2 = User.builder().id(2L).name("Второй Пользователь").email("second@example.com").build();
+        when(userRepository.findAllById(anyList())).thenReturn(List.of(testUser, user2));
+
+        List<UserLookupDto> result = userService.getUsersByIds(List.of(2L, 99L, 1L, 2L));
+
+        assertThat(result).extracting(UserLookupDto::getId).containsExactly(2L, 99L, 1L, 2L);
+        assertThat(result).extracting(UserLookupDto::isFound).containsExactly(true, false, true, true);
+        assertThat(result.get(1).getUser()).isNull();
+        assertThat(result.get(2).getUser().getName()).isEqualTo(testUser.getName());
+
+        List<UserLookupDto> cached = userService.getUsersByIds(List.of(1L, 99L));
+
+        assertThat(cached).extracting(UserLookupDto::isFound).containsExactly(true, false);
+        verify(userRepository, times(1)).findAllById(anyList());
+    }
+
+    @Test
+    @DisplayName("Должен отклонить пустой список ID")
+    void getUsersByIds_WhenEmpty_ShouldThrowException() {
+
+        assertThatThrownBy(() -> userService.getUsersByIds(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Должен отклонить список ID с пустым значением")
+    void getUsersByIds_WhenContainsNull_ShouldThrowException() {
+
+        assertThatThrownBy(() -> userService.getUsersByIds(Arrays.asList(1L, null, 2L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть последнюю страницу без курсора")
+    void getUsers_WhenLastPage_ShouldReturnNullCursor() {
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(UserService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+        when(userRepository.estimateCount()).thenReturn(-1L);
+
+        UserPageDto result = userService.getUsers(1L, 100_000);
+
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
+        assertThat(result.getApproximateTotal()).isZero();
     }
 
     @Test
@@ -142,14 +484,15 @@ class UserServiceTest {
 
         Long userId = 1L;
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.existsByEmail(updateUserRequest.getEmail())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         UserDto result = userService.updateUser(userId, updateUserRequest);
 
         assertThat(result).isNotNull();
         verify(userRepository).findById(userId);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(outboxEvents).userUpdated(result);
     }
 
     @Test
@@ -163,7 +506,7 @@ class UserServiceTest {
                 .isInstanceOf(UserNotFoundException.class);
 
         verify(userRepository).findById(userId);
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -171,12 +514,29 @@ class UserServiceTest {
     void deleteUser_WhenUserExists_ShouldDeleteUser() {
 
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.lockById(userId)).thenReturn(Optional.of(userId));
+        LocalDateTime netflixCreatedAt = LocalDateTime.of(2024, 3, 1, 10, 15);
+        LocalDateTime spotifyCreatedAt = LocalDateTime.of(2024, 3, 9, 18, 40);
+        when(subscriptionRepository.findIdsServiceNamesAndCreatedAtByUserId(userId)).thenReturn(List.of(
+                new Object[]{10L, "Netflix", netflixCreatedAt},
+                new Object[]{11L, "Spotify", spotifyCreatedAt}));
 
         userService.deleteUser(userId);
 
-        verify(userRepository).existsById(userId);
-        verify(userRepository).deleteById(userId);
+        InOrder delete = inOrder(userRepository, subscriptionRepository);
+        delete.verify(userRepository).lockById(userId);
+        delete.verify(subscriptionRepository).findIdsServiceNamesAndCreatedAtByUserId(userId);
+        delete.verify(userRepository).deleteUserById(userId);
+        verify(userRepository, never()).existsById(any());
+        InOrder events = inOrder(outboxEvents);
+        events.verify(outboxEvents).subscriptionDeleted(userId, 10L);
+        events.verify(outboxEvents).subscriptionDeleted(userId, 11L);
+        events.verify(outboxEvents).userDeleted(userId);
+        verify(subscriptionRollups).subscriptionsRemoved(Map.of(
+                "Netflix", List.of(netflixCreatedAt),
+                "Spotify", List.of(spotifyCreatedAt)));
+        verify(leaderboard).recordDeleted("Netflix");
+        verify(leaderboard).recordDeleted("Spotify");
     }
 
     @Test
@@ -184,12 +544,12 @@ class UserServiceTest {
     void deleteUser_WhenUserNotExists_ShouldThrowException() {
 
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.lockById(userId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.deleteUser(userId))
                 .isInstanceOf(UserNotFoundException.class);
 
-        verify(userRepository).existsById(userId);
-        verify(userRepository, never()).deleteById(userId);
+        verify(userRepository, never()).deleteUserById(any());
+        verifyNoInteractions(subscriptionRepository, subscriptionRollups, leaderboard);
     }
 }